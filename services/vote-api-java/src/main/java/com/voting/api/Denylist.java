@@ -0,0 +1,270 @@
+package com.voting.api;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revoked tokens (by jti) and revoked subjects, checked locally on every vote.
+ *
+ * Entries live in exact maps fronted by a {@link BloomFilter}. Almost every token
+ * is not revoked, and for those the check is a handful of bit probes with no lock
+ * and no network hop; only a filter hit consults the maps. A revoked subject
+ * rejects every token issued to it up to and including the second of the
+ * revocation time, so a fresh login works again from the next second on (iat has
+ * one-second granularity, and a token issued in that second may predate the
+ * revocation). Revoked jtis are dropped once their exp has passed, revoked subjects
+ * once subjectRetentionSeconds have passed, by when every token issued before the
+ * revocation has expired; the filter is rebuilt on each purge and whenever it
+ * outgrows its sizing.
+ *
+ * Revocations arrive through {@link #apply} (the admin endpoint) and, when a URL is
+ * configured, are pulled from it periodically in the same JSON format:
+ *
+ * <pre>
+ *   {"tokens": [{"jti": "...", "exp": 1700000000}], "subjects": [{"sub": "...", "revokedAt": 1700000000}]}
+ * </pre>
+ *
+ * Times are epoch seconds; a missing exp keeps the jti until restart, a missing
+ * revokedAt means now. A document is validated in full before any of it is applied,
+ * so a malformed one changes nothing. Syncs time out after syncTimeoutMs, and a
+ * sync still running when the next is due is not overlapped. Entries are held in
+ * memory only, so a restarted instance relies on the sync URL to get them back.
+ */
+final class Denylist {
+    private static final Logger logger = LoggerFactory.getLogger(Denylist.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Seeds keep jti and sub entries apart in the shared filter
+    private static final long JTI = 0x6a7469L;
+    private static final long SUB = 0x737562L;
+    // Same tolerance the claims check applies to exp
+    private static final long MAX_CLOCK_SKEW_SECONDS = 60;
+
+    private final Vertx vertx;
+    private final WebClient webClient;
+    private final String url;
+    private final long syncIntervalMs;
+    private final long syncTimeoutMs;
+    private final long subjectRetentionSeconds;
+    private final long expectedEntries;
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> subjects = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private long capacity;
+    private long timerId = -1;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder syncFailures = new LongAdder();
+
+    /**
+     * @param subjectRetentionSeconds how long a subject revocation is kept: the longest lifetime of a token
+     *                                issued before it
+     */
+    Denylist(Vertx vertx, WebClient webClient, String url, long syncIntervalMs, long syncTimeoutMs,
+             long subjectRetentionSeconds, long expectedEntries) {
+        this.vertx = vertx;
+        this.webClient = webClient;
+        this.url = url;
+        this.syncIntervalMs = syncIntervalMs;
+        this.syncTimeoutMs = syncTimeoutMs;
+        this.subjectRetentionSeconds = subjectRetentionSeconds;
+        this.expectedEntries = Math.max(1, expectedEntries);
+        this.capacity = this.expectedEntries;
+        this.filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+    }
+
+    /** Syncs from the URL, if any, and starts the periodic sync and purge. */
+    void start() {
+        if (!url.isEmpty()) {
+            sync();
+        }
+        if (syncIntervalMs > 0) {
+            timerId = vertx.setPeriodic(syncIntervalMs, id -> {
+                purge(System.currentTimeMillis() / 1000);
+                if (!url.isEmpty()) {
+                    sync();
+                }
+            });
+        }
+    }
+
+    boolean isRevoked(TokenClaims claims) {
+        checks.increment();
+        BloomFilter current = filter;
+        String jti = claims.jwtId();
+        String sub = claims.subject();
+        boolean maybeToken = jti != null && current.mightContain(JTI, jti);
+        boolean maybeSubject = sub != null && current.mightContain(SUB, sub);
+        if (!maybeToken && !maybeSubject) {
+            return false;
+        }
+        boolean revoked = maybeToken && tokens.containsKey(jti)
+            || maybeSubject && revokedSubject(sub, claims.issuedAt());
+        if (revoked) {
+            denied.increment();
+        } else {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    private boolean revokedSubject(String sub, long issuedAt) {
+        Long revokedAt = subjects.get(sub);
+        return revokedAt != null && (issuedAt == TokenClaims.ABSENT || issuedAt <= revokedAt);
+    }
+
+    synchronized void revokeToken(String jti, long expiresAt) {
+        // The exact entry goes in before the filter bits, so a filter hit always finds it
+        tokens.merge(jti, expiresAt, Math::max);
+        added(JTI, jti);
+    }
+
+    synchronized void revokeSubject(String sub, long revokedAt) {
+        subjects.merge(sub, revokedAt, Math::max);
+        added(SUB, sub);
+    }
+
+    private void added(long seed, String value) {
+        if (tokens.size() + subjects.size() > capacity) {
+            rebuild();
+        } else {
+            filter.add(seed, value);
+        }
+    }
+
+    /**
+     * Applies a revocation document; returns the number of entries it contained.
+     *
+     * @throws IllegalArgumentException if the document is malformed, in which case nothing is applied
+     */
+    int apply(JsonObject document) {
+        long now = System.currentTimeMillis() / 1000;
+        Map<String, Long> revokedTokens = new LinkedHashMap<>();
+        Map<String, Long> revokedSubjects = new LinkedHashMap<>();
+        int entries = 0;
+        try {
+            JsonArray tokenEntries = document.getJsonArray("tokens");
+            for (int i = 0; tokenEntries != null && i < tokenEntries.size(); i++) {
+                JsonObject entry = tokenEntries.getJsonObject(i);
+                String jti = entry == null ? null : entry.getString("jti");
+                if (jti == null) {
+                    throw new IllegalArgumentException("token entry without jti");
+                }
+                revokedTokens.merge(jti, seconds(entry, "exp", Long.MAX_VALUE), Math::max);
+                entries++;
+            }
+            JsonArray subjectEntries = document.getJsonArray("subjects");
+            for (int i = 0; subjectEntries != null && i < subjectEntries.size(); i++) {
+                JsonObject entry = subjectEntries.getJsonObject(i);
+                String sub = entry == null ? null : entry.getString("sub");
+                if (sub == null) {
+                    throw new IllegalArgumentException("subject entry without sub");
+                }
+                revokedSubjects.merge(sub, seconds(entry, "revokedAt", now), Math::max);
+                entries++;
+            }
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("malformed denylist document", e);
+        }
+        synchronized (this) {
+            revokedTokens.forEach(this::revokeToken);
+            revokedSubjects.forEach(this::revokeSubject);
+        }
+        return entries;
+    }
+
+    private static long seconds(JsonObject entry, String key, long absent) {
+        Object value = entry.getValue(key);
+        if (value == null) {
+            return absent;
+        }
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException(key + " is not a number");
+        }
+        return number.longValue();
+    }
+
+    /**
+     * Drops jtis whose tokens have expired and subjects revoked longer ago than any
+     * token lives, and rebuilds the filter from what is left.
+     */
+    synchronized void purge(long nowSeconds) {
+        int before = tokens.size() + subjects.size();
+        tokens.values().removeIf(exp -> exp < nowSeconds - MAX_CLOCK_SKEW_SECONDS);
+        subjects.values().removeIf(revokedAt -> revokedAt < nowSeconds - subjectRetentionSeconds - MAX_CLOCK_SKEW_SECONDS);
+        int purged = before - tokens.size() - subjects.size();
+        if (purged > 0) {
+            logger.debug("Purged {} expired entries from the denylist", purged);
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        long entries = tokens.size() + subjects.size();
+        capacity = Math.max(expectedEntries, entries * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        tokens.keySet().forEach(jti -> rebuilt.add(JTI, jti));
+        subjects.keySet().forEach(sub -> rebuilt.add(SUB, sub));
+        filter = rebuilt;
+    }
+
+    private Future<Void> sync() {
+        // A slow endpoint must not pile up one request per interval
+        if (!syncing.compareAndSet(false, true)) {
+            return Future.succeededFuture();
+        }
+        return webClient.getAbs(url).timeout(syncTimeoutMs).send()
+            .map(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Denylist endpoint returned HTTP " + response.statusCode());
+                }
+                return apply(response.bodyAsJsonObject());
+            })
+            .onSuccess(applied -> {
+                syncs.increment();
+                logger.debug("Denylist synced: {} entries", applied);
+            })
+            .onFailure(err -> {
+                syncFailures.increment();
+                logger.warn("Failed to sync denylist from {}", url, err);
+            })
+            .onComplete(result -> syncing.set(false))
+            .mapEmpty();
+    }
+
+    JsonObject metrics() {
+        BloomFilter current = filter;
+        return new JsonObject()
+            .put("tokens", tokens.size())
+            .put("subjects", subjects.size())
+            .put("filterBits", current.bits())
+            .put("filterHashes", current.hashes())
+            .put("checks", checks.sum())
+            .put("denied", denied.sum())
+            .put("falsePositives", falsePositives.sum())
+            .put("syncs", syncs.sum())
+            .put("syncFailures", syncFailures.sum());
+    }
+
+    void close() {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+}
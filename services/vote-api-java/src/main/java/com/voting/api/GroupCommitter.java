@@ -0,0 +1,76 @@
+package com.voting.api;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Group commit for the vote ledger.
+ *
+ * Callers append their vote and then wait on {@link #commit(long)} for its slot. Waiters are
+ * collected by a {@link MicroBatcher} into batches of at most maxBatch that are made
+ * durable with a single sync once the batch is full or the oldest waiter has waited
+ * maxLatencyMs, whichever comes first. Only one sync runs at a time; waiters arriving
+ * meanwhile form the next batch. Each waiter is completed back on the context it
+ * called from.
+ */
+final class GroupCommitter {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitter.class);
+
+    private final Vertx vertx;
+    private final VoteStore store;
+    private final WorkerExecutor syncExecutor;
+    private final MicroBatcher<Waiter> batcher;
+
+    GroupCommitter(Vertx vertx, VoteStore store, long maxLatencyMs, int maxBatch) {
+        this.vertx = vertx;
+        this.store = store;
+        this.syncExecutor = vertx.createSharedWorkerExecutor("vote-ledger-sync", 1);
+        // Every waiter's vote is already in the ledger, so none is ever turned away
+        this.batcher = new MicroBatcher<>(vertx, maxLatencyMs, maxBatch, 1, Integer.MAX_VALUE, this::sync);
+    }
+
+    /** Completes once the vote appended at slot is durable. */
+    Future<Void> commit(long slot) {
+        Promise<Void> promise = Promise.promise();
+        batcher.add(new Waiter(vertx.getOrCreateContext(), promise, slot));
+        return promise.future();
+    }
+
+    private Future<Void> sync(List<Waiter> batch) {
+        long from = Long.MAX_VALUE;
+        long to = 0;
+        for (Waiter waiter : batch) {
+            from = Math.min(from, waiter.slot);
+            to = Math.max(to, waiter.slot + 1);
+        }
+        long syncFrom = from;
+        long syncTo = to;
+
+        return syncExecutor.<Void>executeBlocking(() -> {
+            // Slots in the range owned by other writers are forced early, which is harmless
+            store.sync(syncFrom, syncTo);
+            return null;
+        }, false).onComplete(result -> {
+            if (result.failed()) {
+                logger.error("Vote ledger sync failed for {} votes", batch.size(), result.cause());
+            }
+            for (Waiter waiter : batch) {
+                waiter.context.runOnContext(v -> waiter.promise.handle(result));
+            }
+        });
+    }
+
+    void close() {
+        syncExecutor.close();
+    }
+
+    private record Waiter(Context context, Promise<Void> promise, long slot) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.voting.api;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory vote log stored column-wise in primitive arrays.
+ *
+ * Writers reserve a slot with a single atomic increment and fill it without any
+ * lock, so appends from different elections never contend beyond that counter.
+ * The votedAt column doubles as the commit marker: it is written last with release
+ * semantics and a zero value means the slot is reserved but not yet visible.
+ * Storage grows in fixed-size chunks so existing records are never copied.
+ */
+final class HeapVoteLog implements VoteLog {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 1 << 17;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicLong next = new AtomicLong();
+
+    @Override
+    public long reserve() {
+        long slot = next.getAndIncrement();
+        if (slot >= (long) MAX_CHUNKS * CHUNK_SIZE) {
+            throw new IllegalStateException("vote log is full");
+        }
+        return slot;
+    }
+
+    @Override
+    public void write(long slot, long idHi, long idLo, long votedAt, int election, int candidate, int sub) {
+        Chunk chunk = chunk((int) (slot >>> CHUNK_BITS));
+        int i = (int) slot & CHUNK_MASK;
+        chunk.idHi[i] = idHi;
+        chunk.idLo[i] = idLo;
+        chunk.election[i] = election;
+        chunk.candidate[i] = candidate;
+        chunk.sub[i] = sub;
+        LONGS.setRelease(chunk.votedAt, i, votedAt);
+    }
+
+    @Override
+    public long size() {
+        return next.get();
+    }
+
+    @Override
+    public Vote read(long slot) {
+        if (slot < 0 || slot >= next.get()) {
+            return null;
+        }
+        Chunk chunk = chunks.get((int) (slot >>> CHUNK_BITS));
+        if (chunk == null) {
+            return null;
+        }
+        int i = (int) slot & CHUNK_MASK;
+        long votedAt = (long) LONGS.getAcquire(chunk.votedAt, i);
+        if (votedAt == 0) {
+            return null;
+        }
+        return new Vote(slot, chunk.idHi[i], chunk.idLo[i], votedAt,
+            chunk.election[i], chunk.candidate[i], chunk.sub[i]);
+    }
+
+    private Chunk chunk(int index) {
+        Chunk chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new Chunk());
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+
+    private static final class Chunk {
+        final long[] idHi = new long[CHUNK_SIZE];
+        final long[] idLo = new long[CHUNK_SIZE];
+        final long[] votedAt = new long[CHUNK_SIZE];
+        final int[] election = new int[CHUNK_SIZE];
+        final int[] candidate = new int[CHUNK_SIZE];
+        final int[] sub = new int[CHUNK_SIZE];
+    }
+}
@@ -0,0 +1,349 @@
+package com.voting.api;
+
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+/**
+ * Position in a UTF-8 JSON document held in a byte range, for single-pass readers
+ * that pick out a few known fields and skip the rest without building them.
+ *
+ * Subclasses drive the structure; this class reads and skips the individual
+ * values. Skipped values are still checked against the JSON grammar, so a document
+ * is rejected whether or not the malformed part is one a reader keeps. Only the
+ * strings a reader keeps are allocated.
+ */
+abstract class JsonCursor {
+
+    // Deepest nesting accepted in skipped values, so hostile input cannot exhaust the stack
+    private static final int MAX_DEPTH = 64;
+
+    final byte[] in;
+    final int end;
+    int pos;
+    private final int origin;
+
+    JsonCursor(byte[] in, int offset, int length) {
+        this.in = in;
+        this.origin = offset;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /** Reads the buffer's backing array in place when it has one, otherwise a copy. */
+    @SuppressWarnings("deprecation") // getByteBuf is Vert.x 4's only public route to the Netty buffer
+    JsonCursor(Buffer buffer) {
+        this(buffer, buffer.getByteBuf());
+    }
+
+    private JsonCursor(Buffer buffer, ByteBuf buf) {
+        this(buf.hasArray() ? buf.array() : buffer.getBytes(),
+            buf.hasArray() ? buf.arrayOffset() + buf.readerIndex() : 0,
+            buffer.length());
+    }
+
+    final boolean is(int start, String name) {
+        if (start + name.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (in[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads an object key and returns the entry of names it equals, or null for any
+     * other key. Unescaped keys are matched in place without allocating.
+     */
+    final String readKey(String[] names) throws ParseException {
+        expect('"');
+        int start = pos;
+        while (pos < end && in[pos] != '"' && in[pos] != '\\') {
+            if ((in[pos] & 0xff) < 0x20) {
+                throw error("Control character in string");
+            }
+            pos++;
+        }
+        if (pos < end && in[pos] == '"') {
+            int length = pos++ - start;
+            for (String name : names) {
+                if (name.length() == length && is(start, name)) {
+                    return name;
+                }
+            }
+            return null;
+        }
+        // Escaped key: rare, decode it in full
+        pos = start - 1;
+        String key = readString();
+        for (String name : names) {
+            if (name.equals(key)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    final String readNullableString() throws ParseException {
+        if (peek() == 'n') {
+            literal("null");
+            return null;
+        }
+        if (peek() != '"') {
+            throw error("Expected string");
+        }
+        return readString();
+    }
+
+    final String readString() throws ParseException {
+        expect('"');
+        int start = pos;
+        while (pos < end && in[pos] != '"' && in[pos] != '\\') {
+            if ((in[pos] & 0xff) < 0x20) {
+                throw error("Control character in string");
+            }
+            pos++;
+        }
+        if (pos >= end) {
+            throw error("Unterminated string");
+        }
+        if (in[pos] == '"') {
+            return new String(in, start, pos++ - start, StandardCharsets.UTF_8);
+        }
+        StringBuilder out = new StringBuilder().append(new String(in, start, pos - start, StandardCharsets.UTF_8));
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                return out.toString();
+            }
+            if (b != '\\') {
+                int run = --pos;
+                while (pos < end && in[pos] != '"' && in[pos] != '\\') {
+                    if ((in[pos] & 0xff) < 0x20) {
+                        throw error("Control character in string");
+                    }
+                    pos++;
+                }
+                out.append(new String(in, run, pos - run, StandardCharsets.UTF_8));
+                continue;
+            }
+            out.append(unescape());
+        }
+    }
+
+    /** Decodes the escape sequence after a backslash. */
+    private char unescape() throws ParseException {
+        byte escaped = next();
+        switch (escaped) {
+            case '"', '\\', '/' -> {
+                return (char) escaped;
+            }
+            case 'b' -> {
+                return '\b';
+            }
+            case 'f' -> {
+                return '\f';
+            }
+            case 'n' -> {
+                return '\n';
+            }
+            case 'r' -> {
+                return '\r';
+            }
+            case 't' -> {
+                return '\t';
+            }
+            case 'u' -> {
+                if (pos + 4 > end) {
+                    throw error("Truncated unicode escape");
+                }
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(in[pos++], 16);
+                    if (digit < 0) {
+                        throw error("Malformed unicode escape");
+                    }
+                    code = code << 4 | digit;
+                }
+                return (char) code;
+            }
+            default -> throw error("Invalid escape");
+        }
+    }
+
+    /** Skips one value, checking it is well-formed without building it. */
+    final void skipValue() throws ParseException {
+        skipValue(0);
+    }
+
+    private void skipValue(int depth) throws ParseException {
+        switch (peek()) {
+            case '"' -> skipString();
+            case '{' -> skipObject(depth + 1);
+            case '[' -> skipArray(depth + 1);
+            case 't' -> literal("true");
+            case 'f' -> literal("false");
+            case 'n' -> literal("null");
+            default -> skipNumber();
+        }
+    }
+
+    private void skipObject(int depth) throws ParseException {
+        checkDepth(depth);
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected '\"'");
+            }
+            skipString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            skipValue(depth);
+            skipWhitespace();
+            byte next = next();
+            if (next == '}') {
+                return;
+            }
+            if (next != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private void skipArray(int depth) throws ParseException {
+        checkDepth(depth);
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            skipValue(depth);
+            skipWhitespace();
+            byte next = next();
+            if (next == ']') {
+                return;
+            }
+            if (next != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private void checkDepth(int depth) throws ParseException {
+        if (depth > MAX_DEPTH) {
+            throw error("JSON nested too deeply");
+        }
+    }
+
+    private void skipString() throws ParseException {
+        pos++;
+        while (pos < end) {
+            byte b = in[pos++];
+            if (b == '"') {
+                return;
+            }
+            if ((b & 0xff) < 0x20) {
+                pos--;
+                throw error("Control character in string");
+            }
+            if (b == '\\') {
+                unescape();
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    /** Skips a number, which must match the JSON grammar: -?(0|[1-9]d*)(.d+)?([eE][+-]?d+)? */
+    final void skipNumber() throws ParseException {
+        if (pos < end && in[pos] == '-') {
+            pos++;
+        }
+        if (pos < end && in[pos] == '0') {
+            pos++;
+        } else if (!skipDigits()) {
+            throw error("Invalid number");
+        }
+        if (pos < end && in[pos] == '.') {
+            pos++;
+            if (!skipDigits()) {
+                throw error("Invalid number");
+            }
+        }
+        if (pos < end && (in[pos] == 'e' || in[pos] == 'E')) {
+            pos++;
+            if (pos < end && (in[pos] == '+' || in[pos] == '-')) {
+                pos++;
+            }
+            if (!skipDigits()) {
+                throw error("Invalid number");
+            }
+        }
+    }
+
+    private boolean skipDigits() {
+        int start = pos;
+        while (pos < end && in[pos] >= '0' && in[pos] <= '9') {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    final void literal(String word) throws ParseException {
+        if (!is(pos, word)) {
+            throw error("Unexpected literal");
+        }
+        pos += word.length();
+    }
+
+    final void skipWhitespace() {
+        while (pos < end && (in[pos] == ' ' || in[pos] == '\t' || in[pos] == '\n' || in[pos] == '\r')) {
+            pos++;
+        }
+    }
+
+    final byte peek() throws ParseException {
+        if (pos >= end) {
+            throw error("Unexpected end of JSON");
+        }
+        return in[pos];
+    }
+
+    final byte next() throws ParseException {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    final void expect(char c) throws ParseException {
+        if (next() != c) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    /** Skips trailing whitespace and fails if anything else is left. */
+    final void expectEnd() throws ParseException {
+        skipWhitespace();
+        if (pos != end) {
+            throw error("Trailing data after JSON object");
+        }
+    }
+
+    final ParseException error(String message) {
+        return new ParseException(message, pos - origin);
+    }
+}
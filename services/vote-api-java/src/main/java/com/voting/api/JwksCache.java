@@ -0,0 +1,202 @@
+package com.voting.api;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.ParseException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JWKS held in memory and refreshed in the background, so signing-key rotations
+ * are picked up without a restart.
+ *
+ * The key set is fetched with the non-blocking WebClient, turned into a
+ * {@link VerifierRegistry} and swapped in atomically; verification only ever reads
+ * the current registry and never waits on I/O. A token
+ * signed with an unknown kid triggers an on-demand refetch, at most once per
+ * minRefetchIntervalMs, which callers can wait on through {@link #ensureKey}.
+ * Concurrent refresh requests share a single fetch, which fails after fetchTimeoutMs
+ * if the endpoint stalls.
+ *
+ * Bootstrapping never blocks: keys can be seeded from a local JWKS file for a fast
+ * cold start, and the first fetch is retried with exponential backoff until it
+ * succeeds. Until some key set has been loaded the cache reports not ready.
+ */
+final class JwksCache {
+    private static final Logger logger = LoggerFactory.getLogger(JwksCache.class);
+
+    private final Vertx vertx;
+    private final WebClient webClient;
+    private final String url;
+    private final long refreshIntervalMs;
+    private final long minRefetchIntervalMs;
+    private final long fetchTimeoutMs;
+
+    private final AtomicReference<VerifierRegistry> registry = new AtomicReference<>(VerifierRegistry.EMPTY);
+    private final AtomicReference<Future<Void>> inFlight = new AtomicReference<>();
+    private final AtomicLong lastRefetch = new AtomicLong();
+    private volatile long lastRefreshAt;
+    private long timerId = -1;
+    private volatile boolean closed;
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder unknownKidRefetches = new LongAdder();
+
+    JwksCache(Vertx vertx, WebClient webClient, String url, long refreshIntervalMs, long minRefetchIntervalMs,
+              long fetchTimeoutMs) {
+        this.vertx = vertx;
+        this.webClient = webClient;
+        this.url = url;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.minRefetchIntervalMs = minRefetchIntervalMs;
+        this.fetchTimeoutMs = fetchTimeoutMs;
+    }
+
+    /** Seeds the key set from a local JWKS file. */
+    Future<Void> loadFile(String path) {
+        return vertx.fileSystem().readFile(path)
+            .map(buffer -> {
+                try {
+                    return JWKSet.parse(buffer.toString());
+                } catch (ParseException e) {
+                    throw new IllegalStateException("Malformed JWKS file " + path, e);
+                }
+            })
+            .onSuccess(set -> {
+                registry.set(VerifierRegistry.of(set));
+                logger.info("Loaded {} JWKS keys from {}", set.getKeys().size(), path);
+            })
+            .mapEmpty();
+    }
+
+    /**
+     * Fetches the key set, retrying failures with exponential backoff from
+     * initialDelayMs up to maxDelayMs. Completes on the first successful fetch.
+     */
+    Future<Void> refreshWithRetry(long initialDelayMs, long maxDelayMs) {
+        Promise<Void> promise = Promise.promise();
+        attempt(promise, initialDelayMs, maxDelayMs);
+        return promise.future();
+    }
+
+    private void attempt(Promise<Void> promise, long delayMs, long maxDelayMs) {
+        refresh().onComplete(result -> {
+            if (result.succeeded()) {
+                promise.complete();
+            } else if (closed) {
+                promise.fail(result.cause());
+            } else {
+                logger.info("Retrying JWKS fetch in {} ms", delayMs);
+                vertx.setTimer(delayMs, id -> attempt(promise, Math.min(delayMs * 2, maxDelayMs), maxDelayMs));
+            }
+        });
+    }
+
+    /** True once a key set has been loaded, from the endpoint or a file. */
+    boolean ready() {
+        return !registry.get().isEmpty();
+    }
+
+    /** Starts the periodic background refresh. */
+    void startRefreshing() {
+        if (refreshIntervalMs > 0) {
+            timerId = vertx.setPeriodic(refreshIntervalMs, id -> refresh());
+        }
+    }
+
+    /** Fetches the key set and swaps it in; joins a fetch that is already running. */
+    Future<Void> refresh() {
+        Promise<Void> promise = Promise.promise();
+        Future<Void> running = inFlight.compareAndExchange(null, promise.future());
+        if (running != null) {
+            return running;
+        }
+
+        // A stalled endpoint must fail the fetch, or every later refresh and ensureKey would join it forever
+        webClient.getAbs(url).timeout(fetchTimeoutMs).send()
+            .map(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("JWKS endpoint returned HTTP " + response.statusCode());
+                }
+                try {
+                    return JWKSet.parse(response.bodyAsString());
+                } catch (ParseException e) {
+                    throw new IllegalStateException("Malformed JWKS", e);
+                }
+            })
+            .onComplete(result -> {
+                if (result.succeeded()) {
+                    // Publish before clearing inFlight: an ensureKey in between must see the new keys
+                    registry.set(VerifierRegistry.of(result.result()));
+                    inFlight.set(null);
+                    lastRefreshAt = System.currentTimeMillis();
+                    refreshes.increment();
+                    logger.debug("JWKS refreshed: {} keys", result.result().getKeys().size());
+                    promise.complete();
+                } else {
+                    inFlight.set(null);
+                    failures.increment();
+                    logger.warn("Failed to refresh JWKS from {}", url, result.cause());
+                    promise.fail(result.cause());
+                }
+            });
+        return promise.future();
+    }
+
+    boolean hasKey(String kid) {
+        return registry.get().contains(kid);
+    }
+
+    /**
+     * Completes once kid is known, refetching the key set first if it is not and the
+     * refetch rate limit allows. Completes successfully even if the key stays
+     * unknown; verification then rejects the token as usual.
+     */
+    Future<Void> ensureKey(String kid) {
+        if (hasKey(kid)) {
+            return Future.succeededFuture();
+        }
+        Future<Void> running = inFlight.get();
+        if (running != null) {
+            return running.recover(err -> Future.succeededFuture());
+        }
+        long now = System.currentTimeMillis();
+        long last = lastRefetch.get();
+        if (now - last < minRefetchIntervalMs || !lastRefetch.compareAndSet(last, now)) {
+            return Future.succeededFuture();
+        }
+        unknownKidRefetches.increment();
+        logger.info("Unknown JWKS kid {}, refetching key set", kid);
+        return refresh().recover(err -> Future.succeededFuture());
+    }
+
+    VerifierRegistry registry() {
+        return registry.get();
+    }
+
+    JsonObject metrics() {
+        return new JsonObject()
+            .put("ready", ready())
+            .put("keys", registry.get().size())
+            .put("lastRefreshAt", lastRefreshAt)
+            .put("refreshes", refreshes.sum())
+            .put("failures", failures.sum())
+            .put("unknownKidRefetches", unknownKidRefetches.sum());
+    }
+
+    void close() {
+        closed = true;
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+}
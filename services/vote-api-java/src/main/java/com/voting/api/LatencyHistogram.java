@@ -0,0 +1,86 @@
+package com.voting.api;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ *
+ * Bucket i counts samples up to 2^i microseconds, which is coarse but enough to
+ * compare verification costs and read rough percentiles from {@link #metrics()}.
+ * An exponentially weighted moving average of recent samples is kept alongside
+ * for callers that make decisions on current cost.
+ */
+final class LatencyHistogram {
+
+    private static final int BUCKETS = 24;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    // Racy updates are fine for a moving average
+    private volatile long recentNanos;
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        buckets[Math.min(bucket, BUCKETS - 1)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        recentNanos += (nanos - recentNanos) / 8;
+    }
+
+    long recentNanos() {
+        return recentNanos;
+    }
+
+    JsonObject metrics() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        JsonObject histogram = new JsonObject();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                histogram.put("le" + (1L << i), counts[i]);
+            }
+        }
+        return new JsonObject()
+            .put("count", count.sum())
+            .put("avgMicros", total == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / total))
+            .put("recentMicros", TimeUnit.NANOSECONDS.toMicros(recentNanos))
+            .put("p50Micros", percentile(counts, total, 0.50))
+            .put("p99Micros", percentile(counts, total, 0.99))
+            .put("maxMicros", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()))
+            .put("bucketsMicros", histogram);
+    }
+
+    /** Upper bound of the bucket holding the given quantile. */
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
@@ -0,0 +1,204 @@
+package com.voting.api;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Vote log kept off-heap in a memory-mapped, append-only file of fixed-width records.
+ *
+ * The file is mapped in fixed-size segments that are created on demand, so the vote
+ * records themselves live in the page cache rather than on the heap. The heap still
+ * grows with the number of votes: each election's voter index keeps a ballot per
+ * voter, and the {@link SymbolTable} keeps every sub it has seen for the life of
+ * the process. Record layout (40 bytes, little-endian):
+ *
+ * <pre>
+ *   0  votedAt   long  commit marker, written last with release semantics
+ *   8  idHi      long
+ *  16  idLo      long
+ *  24  election  int
+ *  28  candidate int
+ *  32  sub       int
+ *  36  checksum  int   over the other fields, to drop records torn by a crash
+ * </pre>
+ *
+ * On open the file is scanned from a given slot (the snapshot watermark, below
+ * which everything is known to be synced); committed records survive, torn ones
+ * are cleared, and appends resume after the last committed slot. A record whose
+ * symbols never reached the symbol journal is treated as torn: its vote was never
+ * acknowledged, since the journal is synced before any vote is.
+ */
+final class MappedVoteLog implements VoteLog {
+
+    static final int RECORD_BYTES = 40;
+    private static final int SEGMENT_BITS = 20;
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_RECORDS - 1;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_RECORDS * RECORD_BYTES;
+    private static final int MAX_SEGMENTS = 1 << 12;
+
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final AtomicReferenceArray<MappedByteBuffer> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final AtomicLong next = new AtomicLong();
+    // Empty slots below this were abandoned by a crash and will never commit
+    private long recovered;
+
+    private MappedVoteLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static MappedVoteLog open(Path file, long recoverFrom, int symbols) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedVoteLog log = new MappedVoteLog(channel);
+        try {
+            log.recover(recoverFrom, symbols);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    private void recover(long from, int symbols) throws IOException {
+        int mapped = (int) ((channel.size() + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+        long end = from;
+        for (int s = (int) (from >>> SEGMENT_BITS); s < mapped; s++) {
+            MappedByteBuffer segment = segment(s);
+            int first = s == (int) (from >>> SEGMENT_BITS) ? (int) from & SEGMENT_MASK : 0;
+            for (int i = first; i < SEGMENT_RECORDS; i++) {
+                int offset = i * RECORD_BYTES;
+                if (segment.getLong(offset) == 0) {
+                    continue;
+                }
+                if (segment.getInt(offset + 36) != checksum(segment, offset)
+                        || !journaled(segment, offset, symbols)) {
+                    segment.putLong(offset, 0L);
+                    continue;
+                }
+                end = ((long) s << SEGMENT_BITS) + i + 1;
+            }
+        }
+        next.set(end);
+        recovered = end;
+    }
+
+    @Override
+    public long reserve() {
+        long slot = next.getAndIncrement();
+        if (slot >= (long) MAX_SEGMENTS * SEGMENT_RECORDS) {
+            throw new IllegalStateException("vote ledger is full");
+        }
+        return slot;
+    }
+
+    @Override
+    public void write(long slot, long idHi, long idLo, long votedAt, int election, int candidate, int sub) {
+        MappedByteBuffer segment = segment((int) (slot >>> SEGMENT_BITS));
+        int offset = ((int) slot & SEGMENT_MASK) * RECORD_BYTES;
+        segment.putLong(offset + 8, idHi);
+        segment.putLong(offset + 16, idLo);
+        segment.putInt(offset + 24, election);
+        segment.putInt(offset + 28, candidate);
+        segment.putInt(offset + 32, sub);
+        segment.putInt(offset + 36, checksum(votedAt, idHi, idLo, election, candidate, sub));
+        LONGS.setRelease(segment, offset, votedAt);
+    }
+
+    @Override
+    public long size() {
+        return next.get();
+    }
+
+    @Override
+    public Vote read(long slot) {
+        if (slot < 0 || slot >= next.get()) {
+            return null;
+        }
+        // Segments below the recovery point are only mapped once first read
+        MappedByteBuffer segment = segment((int) (slot >>> SEGMENT_BITS));
+        int offset = ((int) slot & SEGMENT_MASK) * RECORD_BYTES;
+        long votedAt = (long) LONGS.getAcquire(segment, offset);
+        if (votedAt == 0) {
+            return null;
+        }
+        return new Vote(slot, segment.getLong(offset + 8), segment.getLong(offset + 16), votedAt,
+            segment.getInt(offset + 24), segment.getInt(offset + 28), segment.getInt(offset + 32));
+    }
+
+    @Override
+    public boolean inFlight(long slot) {
+        return slot >= recovered && VoteLog.super.inFlight(slot);
+    }
+
+    @Override
+    public void sync(long from, long to) {
+        for (long slot = Math.max(from, 0); slot < to; ) {
+            MappedByteBuffer segment = segments.get((int) (slot >>> SEGMENT_BITS));
+            long segmentEnd = Math.min(to, ((slot >>> SEGMENT_BITS) + 1) << SEGMENT_BITS);
+            if (segment != null) {
+                int offset = ((int) slot & SEGMENT_MASK) * RECORD_BYTES;
+                segment.force(offset, (int) (segmentEnd - slot) * RECORD_BYTES);
+            }
+            slot = segmentEnd;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer segment(int index) {
+        MappedByteBuffer segment = segments.get(index);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (segments) {
+            segment = segments.get(index);
+            if (segment == null) {
+                try {
+                    // Mapping past the end grows the file; untouched pages stay sparse
+                    segment = channel.map(FileChannel.MapMode.READ_WRITE, index * SEGMENT_BYTES, SEGMENT_BYTES);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to map vote ledger segment " + index, e);
+                }
+                segment.order(ByteOrder.LITTLE_ENDIAN);
+                segments.set(index, segment);
+            }
+            return segment;
+        }
+    }
+
+    private static boolean journaled(MappedByteBuffer segment, int offset, int symbols) {
+        return segment.getInt(offset + 24) < symbols
+            && segment.getInt(offset + 28) < symbols
+            && segment.getInt(offset + 32) < symbols;
+    }
+
+    private static int checksum(MappedByteBuffer segment, int offset) {
+        return checksum(segment.getLong(offset), segment.getLong(offset + 8), segment.getLong(offset + 16),
+            segment.getInt(offset + 24), segment.getInt(offset + 28), segment.getInt(offset + 32));
+    }
+
+    private static int checksum(long votedAt, long idHi, long idLo, int election, int candidate, int sub) {
+        long h = votedAt * 0x9E3779B97F4A7C15L;
+        h = (h ^ idHi) * 0x9E3779B97F4A7C15L;
+        h = (h ^ idLo) * 0x9E3779B97F4A7C15L;
+        h = (h ^ election) * 0x9E3779B97F4A7C15L;
+        h = (h ^ candidate) * 0x9E3779B97F4A7C15L;
+        h = (h ^ sub) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,90 @@
+package com.voting.api;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Coalesces items submitted from any event loop into batches for a sender.
+ *
+ * A batch is sent once maxBatch items are queued or the oldest has waited
+ * maxLatencyMs, whichever comes first, and never holds more than maxBatch items;
+ * the rest stay queued for the next one. At most maxInFlight batches are
+ * outstanding at a time, and items queued meanwhile go out as soon as one
+ * completes. Once maxPending items are waiting, further items are refused so the
+ * caller can shed load instead of queueing without bound. A maxLatencyMs of 0 sends
+ * each item as soon as a batch may go out.
+ */
+final class MicroBatcher<T> {
+
+    private final Vertx vertx;
+    private final long maxLatencyMs;
+    private final int maxBatch;
+    private final int maxInFlight;
+    private final int maxPending;
+    private final Function<List<T>, Future<?>> sender;
+
+    private final ArrayDeque<T> pending = new ArrayDeque<>();
+    private int inFlight;
+    private long timerId = -1;
+
+    /**
+     * @param sender sends one batch; the returned future completes when the batch is done with,
+     *               whether it succeeded or not
+     */
+    MicroBatcher(Vertx vertx, long maxLatencyMs, int maxBatch, int maxInFlight, int maxPending,
+                 Function<List<T>, Future<?>> sender) {
+        this.vertx = vertx;
+        this.maxLatencyMs = maxLatencyMs;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxPending = maxPending;
+        this.sender = sender;
+    }
+
+    /** Queues item for the next batch; false if maxPending items are already waiting. */
+    synchronized boolean add(T item) {
+        if (pending.size() >= maxPending) {
+            return false;
+        }
+        pending.add(item);
+        // A latency of 0 turns batching off apart from what queues while maxInFlight batches are out
+        if (pending.size() >= maxBatch || maxLatencyMs <= 0) {
+            flush();
+        } else if (timerId < 0) {
+            timerId = vertx.setTimer(maxLatencyMs, id -> onTimer());
+        }
+        return true;
+    }
+
+    private synchronized void onTimer() {
+        timerId = -1;
+        flush();
+    }
+
+    // Called with the monitor held
+    private void flush() {
+        while (!pending.isEmpty() && inFlight < maxInFlight) {
+            if (timerId >= 0) {
+                vertx.cancelTimer(timerId);
+                timerId = -1;
+            }
+            List<T> batch = new ArrayList<>(Math.min(maxBatch, pending.size()));
+            while (batch.size() < maxBatch && !pending.isEmpty()) {
+                batch.add(pending.poll());
+            }
+            inFlight++;
+            sender.apply(batch).onComplete(result -> {
+                synchronized (this) {
+                    inFlight--;
+                    // Whoever queued meanwhile has already waited at least one batch
+                    flush();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.voting.api;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgBuilder;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Persists votes to PostgreSQL with the reactive client, coalescing concurrent
+ * inserts into multi-row batches.
+ *
+ * Each batch is a single INSERT over UNNESTed arrays, so one prepared statement
+ * serves every batch size. The (election_id, voter_sub) primary key is the
+ * authority on duplicates across service instances: rows skipped by ON CONFLICT
+ * complete their waiter with false. Votes are coalesced by a {@link MicroBatcher}:
+ * a batch of at most maxBatch votes is sent once it is full or its oldest vote has
+ * waited maxLatencyMs, with at most poolSize batches in flight. When maxPending
+ * votes are already waiting, inserts fail fast with {@link BacklogFullException}
+ * instead of queueing behind a slow database. Each waiter is completed back on the
+ * context it called from.
+ *
+ * A vote is inserted here before it goes into the local ledger, so the database row
+ * is the commit point. On startup {@link #restoreInto} brings into the local store
+ * every vote the database holds that the ledger lacks, such as one inserted just
+ * before a crash cut off its ledger sync.
+ */
+final class PgVoteWriter {
+    private static final Logger logger = LoggerFactory.getLogger(PgVoteWriter.class);
+
+    private static final String CREATE_TABLE =
+        "CREATE TABLE IF NOT EXISTS votes_ledger ("
+            + " election_id  TEXT        NOT NULL,"
+            + " voter_sub    TEXT        NOT NULL,"
+            + " candidate_id TEXT        NOT NULL,"
+            + " voted_at     TIMESTAMPTZ NOT NULL DEFAULT now(),"
+            + " vote_id      UUID        NOT NULL,"
+            + " PRIMARY KEY (election_id, voter_sub))";
+
+    private static final String INSERT_BATCH =
+        "INSERT INTO votes_ledger (election_id, voter_sub, candidate_id, voted_at, vote_id)"
+            + " SELECT * FROM UNNEST($1::text[], $2::text[], $3::text[], $4::timestamptz[], $5::uuid[])"
+            + " ON CONFLICT (election_id, voter_sub) DO NOTHING"
+            + " RETURNING election_id, voter_sub";
+
+    private static final String SELECT_PAGE =
+        "SELECT election_id, voter_sub, candidate_id, voted_at, vote_id FROM votes_ledger"
+            + " WHERE (election_id, voter_sub) > ($1, $2)"
+            + " ORDER BY election_id, voter_sub LIMIT $3";
+    private static final int RESTORE_PAGE_ROWS = 10_000;
+
+    private final Vertx vertx;
+    private final Pool pool;
+    private final MicroBatcher<Pending> batcher;
+
+    private PgVoteWriter(Vertx vertx, Pool pool, long maxLatencyMs, int maxBatch, int maxInFlight, int maxPending) {
+        this.vertx = vertx;
+        this.pool = pool;
+        this.batcher = new MicroBatcher<>(vertx, maxLatencyMs, maxBatch, maxInFlight, maxPending, this::send);
+    }
+
+    /** Connects to uri and makes sure the votes_ledger table exists. */
+    static Future<PgVoteWriter> create(Vertx vertx, String uri, int poolSize, long maxLatencyMs, int maxBatch,
+                                       int maxPending) {
+        Pool pool = PgBuilder.pool()
+            .with(new PoolOptions().setMaxSize(poolSize))
+            .connectingTo(PgConnectOptions.fromUri(uri).setCachePreparedStatements(true))
+            .using(vertx)
+            .build();
+        return pool.query(CREATE_TABLE).execute()
+            .map(rows -> new PgVoteWriter(vertx, pool, maxLatencyMs, maxBatch, poolSize, maxPending))
+            .onFailure(err -> pool.close());
+    }
+
+    /**
+     * Queues the vote for insertion. Completes with true if the row was inserted, or
+     * false if this voter already has a vote for the election in the database; fails
+     * with {@link BacklogFullException} if too many votes are already waiting.
+     */
+    Future<Boolean> insert(String electionId, String candidateId, String sub, Vote vote) {
+        Promise<Boolean> promise = Promise.promise();
+        Pending row = new Pending(vertx.getOrCreateContext(), promise,
+            electionId, candidateId, sub, vote);
+        if (!batcher.add(row)) {
+            return Future.failedFuture(BacklogFullException.INSTANCE);
+        }
+        return promise.future();
+    }
+
+    private Future<RowSet<Row>> send(List<Pending> batch) {
+        // The same voter twice in one batch: only the first row goes to the database
+        Map<String, Pending> rows = new HashMap<>(batch.size() * 2);
+        List<Pending> duplicates = new ArrayList<>();
+        for (Pending row : batch) {
+            if (rows.putIfAbsent(row.key(), row) != null) {
+                duplicates.add(row);
+            }
+        }
+
+        int n = rows.size();
+        String[] elections = new String[n];
+        String[] subs = new String[n];
+        String[] candidates = new String[n];
+        OffsetDateTime[] votedAt = new OffsetDateTime[n];
+        UUID[] ids = new UUID[n];
+        int i = 0;
+        for (Pending row : rows.values()) {
+            elections[i] = row.electionId;
+            subs[i] = row.sub;
+            candidates[i] = row.candidateId;
+            votedAt[i] = OffsetDateTime.ofInstant(Instant.ofEpochMilli(row.vote.votedAt()), ZoneOffset.UTC);
+            ids[i] = new UUID(row.vote.idHi(), row.vote.idLo());
+            i++;
+        }
+
+        return pool.preparedQuery(INSERT_BATCH)
+            .execute(Tuple.of(elections, subs, candidates, votedAt, ids))
+            .onComplete(result -> {
+                if (result.succeeded()) {
+                    Set<String> inserted = new HashSet<>(result.result().rowCount() * 2);
+                    for (Row row : result.result()) {
+                        inserted.add(key(row.getString(0), row.getString(1)));
+                    }
+                    for (Pending row : rows.values()) {
+                        row.complete(Future.succeededFuture(inserted.contains(row.key())));
+                    }
+                    for (Pending row : duplicates) {
+                        row.complete(Future.succeededFuture(false));
+                    }
+                } else {
+                    logger.error("Failed to persist batch of {} votes", batch.size(), result.cause());
+                    for (Pending row : batch) {
+                        row.complete(Future.failedFuture(result.cause()));
+                    }
+                }
+            });
+    }
+
+    /**
+     * Records in store every vote in the database whose voter has no ballot in that
+     * election yet, reading the table in primary-key order a page at a time. Votes
+     * other instances wrote are adopted too, so local results catch up with the
+     * database. Must run before the store takes votes.
+     *
+     * @return the number of votes added to the store
+     */
+    Future<Long> restoreInto(VoteStore store) {
+        return restorePage(store, "", "", 0);
+    }
+
+    private Future<Long> restorePage(VoteStore store, String afterElection, String afterSub, long restored) {
+        return pool.preparedQuery(SELECT_PAGE)
+            .execute(Tuple.of(afterElection, afterSub, RESTORE_PAGE_ROWS))
+            .compose(rows -> {
+                long count = restored;
+                String lastElection = afterElection;
+                String lastSub = afterSub;
+                for (Row row : rows) {
+                    lastElection = row.getString(0);
+                    lastSub = row.getString(1);
+                    UUID id = row.getUUID(4);
+                    if (store.adopt(lastElection, lastSub, row.getString(2),
+                            row.getOffsetDateTime(3).toInstant().toEpochMilli(),
+                            id.getMostSignificantBits(), id.getLeastSignificantBits()) != null) {
+                        count++;
+                    }
+                }
+                return rows.size() < RESTORE_PAGE_ROWS
+                    ? Future.succeededFuture(count)
+                    : restorePage(store, lastElection, lastSub, count);
+            });
+    }
+
+    Future<Void> close() {
+        return pool.close();
+    }
+
+    private static String key(String electionId, String sub) {
+        // Length-prefixed so that ("a:b", "c") and ("a", "b:c") never collide
+        return electionId.length() + ":" + electionId + sub;
+    }
+
+    /** The database is not keeping up and the vote was not queued; the caller may retry later. */
+    static final class BacklogFullException extends RuntimeException {
+        static final BacklogFullException INSTANCE = new BacklogFullException();
+
+        private BacklogFullException() {
+            super("too many votes waiting for the database", null, false, false);
+        }
+    }
+
+    private record Pending(Context context, Promise<Boolean> promise,
+                           String electionId, String candidateId, String sub, Vote vote) {
+
+        String key() {
+            return PgVoteWriter.key(electionId, sub);
+        }
+
+        void complete(Future<Boolean> result) {
+            context.runOnContext(v -> promise.handle(result));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.voting.api;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key token buckets in a bounded map, without locks.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be full
+ * again (the generic cell rate algorithm, equivalent to a token bucket refilled at
+ * ratePerSecond up to burst). A request advances that time by one emission
+ * interval with a CAS, and is refused if this would put it more than burst
+ * intervals ahead of now.
+ *
+ * A bucket whose refill time has passed is indistinguishable from a new one, so
+ * when the map grows past maxEntries those are evicted first, and arbitrary
+ * buckets only if the map is still over. Sweeps bring it a tenth under the limit,
+ * so they are amortized over many new keys, and only one runs at a time.
+ */
+final class RateLimiter {
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxEntries;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param ratePerSecond sustained requests per second per key; 0 or less disables the limiter
+     */
+    RateLimiter(double ratePerSecond, int burst, int maxEntries) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.intervalNanos = ratePerSecond > 0 ? Math.max(1, (long) (1_000_000_000L / ratePerSecond)) : 0;
+        this.burstNanos = intervalNanos * this.burst;
+    }
+
+    boolean enabled() {
+        return intervalNanos > 0;
+    }
+
+    /** Takes one token for key; returns 0 if allowed, otherwise the nanoseconds until the next token. */
+    long acquire(String key) {
+        return acquire(key, System.nanoTime());
+    }
+
+    /** As {@link #acquire(String)}, at the given System.nanoTime() reading. */
+    long acquire(String key, long now) {
+        if (!enabled()) {
+            return 0;
+        }
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            if (buckets.size() > maxEntries) {
+                evict(now);
+            }
+        }
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                limited.increment();
+                return next - now - burstNanos;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    private void evict(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = buckets.size() - (maxEntries - maxEntries / 10);
+            // Full buckets first: dropping one changes nothing for its key
+            Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+            while (it.hasNext() && excess > 0) {
+                if (it.next().getValue().get() - now <= 0) {
+                    it.remove();
+                    evictions.increment();
+                    excess--;
+                }
+            }
+            it = buckets.entrySet().iterator();
+            while (it.hasNext() && excess > 0) {
+                it.next();
+                it.remove();
+                evictions.increment();
+                excess--;
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /** Whole seconds for a Retry-After header, rounded up so a client retrying then finds a token. */
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+    }
+
+    JsonObject metrics() {
+        return new JsonObject()
+            .put("enabled", enabled())
+            .put("ratePerSecond", ratePerSecond)
+            .put("burst", burst)
+            .put("buckets", buckets.size())
+            .put("maxEntries", maxEntries)
+            .put("allowed", allowed.sum())
+            .put("limited", limited.sum())
+            .put("evictions", evictions.sum());
+    }
+}
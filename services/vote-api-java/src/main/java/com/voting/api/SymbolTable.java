@@ -0,0 +1,174 @@
+package com.voting.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns strings (election, candidate and voter ids) to dense int ids so vote
+ * records can be stored as primitives. Lookups are lock-free, and so is the first
+ * sighting of a string: its id comes from a single atomic increment and its name
+ * goes into chunked storage that grows without copying.
+ *
+ * When opened on a file, new symbols are not written by {@link #intern}; {@link #sync}
+ * appends every symbol interned since the last sync as a length-prefixed UTF-8
+ * record, in id order, so ids are reassigned the same way on the next open.
+ */
+final class SymbolTable implements AutoCloseable {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 1 << 17;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<AtomicReferenceArray<String>> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicInteger next = new AtomicInteger();
+    private final FileChannel journal;
+    // Symbols below this id are in the journal and forced; written under the sync lock
+    private volatile int journaled;
+    private long journalBytes;
+
+    SymbolTable() {
+        this.journal = null;
+    }
+
+    private SymbolTable(FileChannel journal) {
+        this.journal = journal;
+    }
+
+    static SymbolTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        SymbolTable table = new SymbolTable(channel);
+        try {
+            table.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return table;
+    }
+
+    private void load() throws IOException {
+        ByteBuffer contents = journal.map(FileChannel.MapMode.READ_ONLY, 0, journal.size());
+        long valid = 0;
+        while (contents.remaining() >= Integer.BYTES) {
+            int length = contents.getInt();
+            if (length < 0 || length > contents.remaining()) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            contents.get(bytes);
+            String name = new String(bytes, StandardCharsets.UTF_8);
+            ids.put(name, assign(name));
+            valid = contents.position();
+        }
+        // Drop a record torn by a crash so the next append starts on a boundary
+        journal.truncate(valid);
+        journaled = next.get();
+        journalBytes = valid;
+    }
+
+    int intern(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : ids.computeIfAbsent(name, this::assign);
+    }
+
+    /** Returns the id for name, or -1 if it has never been interned. */
+    int find(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    String name(int id) {
+        AtomicReferenceArray<String> chunk = chunks.get(id >>> CHUNK_BITS);
+        return chunk != null ? chunk.get(id & CHUNK_MASK) : null;
+    }
+
+    int size() {
+        return next.get();
+    }
+
+    /** Number of symbols already journaled; all of them for an in-memory table. */
+    int journaled() {
+        return journal != null ? journaled : next.get();
+    }
+
+    /**
+     * Appends the symbols interned since the last sync to the journal and forces it;
+     * no-op for an in-memory table. Once this returns, every symbol interned before
+     * it was called is durable.
+     */
+    synchronized void sync() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        int end = next.get();
+        if (end > journaled) {
+            ByteBuffer records = ByteBuffer.allocate(Math.max(1024, (end - journaled) * 64));
+            for (int id = journaled; id < end; id++) {
+                byte[] bytes = published(id).getBytes(StandardCharsets.UTF_8);
+                if (records.remaining() < Integer.BYTES + bytes.length) {
+                    records = grow(records, Integer.BYTES + bytes.length);
+                }
+                records.putInt(bytes.length).put(bytes);
+            }
+            records.flip();
+            // Positional writes, so a failed sync is simply rewritten from the same offset by the next one
+            long position = journalBytes;
+            while (records.hasRemaining()) {
+                position += journal.write(records, position);
+            }
+            journal.force(false);
+            journaled = end;
+            journalBytes = position;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            try {
+                sync();
+            } finally {
+                journal.close();
+            }
+        }
+    }
+
+    private Integer assign(String name) {
+        int id = next.getAndIncrement();
+        if (id < 0) {
+            throw new IllegalStateException("symbol table is full");
+        }
+        int index = id >>> CHUNK_BITS;
+        AtomicReferenceArray<String> chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        chunk.set(id & CHUNK_MASK, name);
+        return id;
+    }
+
+    // An id is handed out just before its name is stored; wait out that window
+    private String published(int id) {
+        String name;
+        while ((name = name(id)) == null) {
+            Thread.onSpinWait();
+        }
+        return name;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        return grown.put(buffer.flip());
+    }
+}
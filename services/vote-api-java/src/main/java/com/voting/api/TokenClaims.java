@@ -0,0 +1,234 @@
+package com.voting.api;
+
+import com.nimbusds.jwt.proc.BadJWTException;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+/**
+ * The few claims the vote API needs, read straight from a JWT payload.
+ *
+ * Instead of materializing the whole payload as a JWTClaimsSet map, a single pass
+ * over the JSON bytes picks out sub, iss, jti, exp, iat, nbf and the scope claim
+ * ("scope" string, or "scp" array as a fallback) and skips every other value
+ * without building it. Scope checks scan the space-delimited scope string in place.
+ */
+final class TokenClaims {
+
+    static final long ABSENT = Long.MIN_VALUE;
+
+    private String subject;
+    private String issuer;
+    private String jwtId;
+    private String scope;
+    private String scp;
+    private long expiresAt = ABSENT;
+    private long issuedAt = ABSENT;
+    private long notBefore = ABSENT;
+
+    private TokenClaims() {
+    }
+
+    static TokenClaims parse(byte[] json) throws ParseException {
+        TokenClaims claims = new TokenClaims();
+        new Reader(json).readInto(claims);
+        return claims;
+    }
+
+    String subject() {
+        return subject;
+    }
+
+    String issuer() {
+        return issuer;
+    }
+
+    String jwtId() {
+        return jwtId;
+    }
+
+    /** Expiration time in epoch seconds, or {@link #ABSENT}. */
+    long expiresAt() {
+        return expiresAt;
+    }
+
+    long issuedAt() {
+        return issuedAt;
+    }
+
+    long notBefore() {
+        return notBefore;
+    }
+
+    /** True if the space-delimited scope claim contains required as a whole entry. */
+    boolean hasScope(String required) {
+        String scopes = scope != null ? scope : scp;
+        if (scopes == null || required.isEmpty()) {
+            return false;
+        }
+        int length = required.length();
+        for (int start = 0; start <= scopes.length(); ) {
+            int end = scopes.indexOf(' ', start);
+            if (end < 0) {
+                end = scopes.length();
+            }
+            if (end - start == length && scopes.regionMatches(start, required, 0, length)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Checks the issuer, the presence of sub, exp and iat, and the exp/nbf window with
+     * the given clock skew, the same rules DefaultJWTClaimsVerifier applied.
+     */
+    void verify(String expectedIssuer, long nowMillis, long maxClockSkewSeconds) throws BadJWTException {
+        if (subject == null || expiresAt == ABSENT || issuedAt == ABSENT) {
+            throw new BadJWTException("JWT missing required claims");
+        }
+        if (!expectedIssuer.equals(issuer)) {
+            throw new BadJWTException("JWT iss claim has value " + issuer + ", must be " + expectedIssuer);
+        }
+        long now = nowMillis / 1000;
+        if (now > expiresAt + maxClockSkewSeconds) {
+            throw new BadJWTException("Expired JWT");
+        }
+        if (notBefore != ABSENT && now < notBefore - maxClockSkewSeconds) {
+            throw new BadJWTException("JWT before use time");
+        }
+    }
+
+    /** Single-pass reader over the payload JSON; allocates only for the claims it keeps. */
+    private static final class Reader extends JsonCursor {
+        private static final String[] KEYS = {"sub", "iss", "jti", "exp", "iat", "nbf", "scope", "scp"};
+
+        // Bit i set once KEYS[i] has been read
+        private int seen;
+
+        Reader(byte[] in) {
+            super(in, 0, in.length);
+        }
+
+        void readInto(TokenClaims claims) throws ParseException {
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    String key = readKey(KEYS);
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    readClaim(claims, key);
+                    skipWhitespace();
+                    byte next = next();
+                    if (next == '}') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            expectEnd();
+        }
+
+        private void readClaim(TokenClaims claims, String key) throws ParseException {
+            if (key == null) {
+                skipValue();
+                return;
+            }
+            markSeen(key);
+            switch (key) {
+                case "sub" -> claims.subject = readNullableString();
+                case "iss" -> claims.issuer = readNullableString();
+                case "jti" -> claims.jwtId = readNullableString();
+                case "scope" -> claims.scope = readNullableString();
+                case "scp" -> claims.scp = readScp();
+                case "exp" -> claims.expiresAt = readNullableSeconds();
+                case "iat" -> claims.issuedAt = readNullableSeconds();
+                case "nbf" -> claims.notBefore = readNullableSeconds();
+                default -> skipValue();
+            }
+        }
+
+        /** Rejects a claim given twice, as Nimbus does, so the two readers never disagree on its value. */
+        private void markSeen(String key) throws ParseException {
+            for (int i = 0; i < KEYS.length; i++) {
+                if (KEYS[i].equals(key)) {
+                    if ((seen & 1 << i) != 0) {
+                        throw error("Duplicate claim " + key);
+                    }
+                    seen |= 1 << i;
+                    return;
+                }
+            }
+        }
+
+        private String readScp() throws ParseException {
+            if (peek() != '[') {
+                return readNullableString();
+            }
+            pos++;
+            StringBuilder joined = new StringBuilder();
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return joined.toString();
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected string in scp claim");
+                }
+                if (!joined.isEmpty()) {
+                    joined.append(' ');
+                }
+                joined.append(readString());
+                skipWhitespace();
+                byte next = next();
+                if (next == ']') {
+                    return joined.toString();
+                }
+                if (next != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+
+        private long readNullableSeconds() throws ParseException {
+            if (peek() == 'n') {
+                literal("null");
+                return ABSENT;
+            }
+            int start = pos;
+            skipNumber();
+            int i = start;
+            boolean negative = in[i] == '-';
+            if (negative) {
+                i++;
+            }
+            long value = 0;
+            int digits = 0;
+            for (; i < pos && in[i] >= '0' && in[i] <= '9'; i++) {
+                value = value * 10 + (in[i] - '0');
+                digits++;
+            }
+            // NumericDate may carry a fraction, which is dropped; exponents are parsed the slow way
+            for (int j = i; j < pos; j++) {
+                if (in[j] == 'e' || in[j] == 'E') {
+                    return (long) Double.parseDouble(new String(in, start, pos - start, StandardCharsets.US_ASCII));
+                }
+            }
+            if (digits > 18) {
+                throw error("Numeric date out of range");
+            }
+            return negative ? -value : value;
+        }
+    }
+}
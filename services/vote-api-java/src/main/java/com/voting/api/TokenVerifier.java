@@ -0,0 +1,338 @@
+package com.voting.api;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies JWTs on a dedicated, fixed-size worker pool.
+ *
+ * Signatures are checked with the pre-built verifier for the token's kid from the
+ * {@link JwksCache}'s current {@link VerifierRegistry}, then only the claims the
+ * API uses are read from the payload into {@link TokenClaims} and checked against
+ * the expected issuer.
+ *
+ * Signature checks are CPU-bound, so they get their own named executor instead of
+ * the shared worker pool. Offloaded tokens go onto a queue that up to poolSize
+ * drainers empty in micro-batches of at most maxBatch, so a spike costs one worker
+ * hand-off per batch rather than per token; each batch's results are handed back
+ * with one task per event loop. A token that is already queued or being verified
+ * is not verified twice: later callers join the pending verification. Tokens that
+ * were already verified are answered from a {@link VerifiedTokenCache} without any
+ * crypto or thread hop.
+ *
+ * When the signing key is already in the {@link JwksCache} and the moving average
+ * of verification cost for the token's algorithm is within the inline budget, the
+ * check runs directly on the calling event loop, saving the two thread hops of the
+ * worker round trip. Costs differ widely between RSA, ECDSA and EdDSA, so each
+ * algorithm is judged on its own {@link LatencyHistogram}. A cost above budget
+ * falls back to the worker pool, and an unknown kid first waits for the cache to
+ * refetch the key set.
+ * Queue depth and timings are tracked for {@link #metrics()}.
+ */
+final class TokenVerifier {
+
+    // Same tolerance DefaultJWTClaimsVerifier applies to exp and nbf
+    private static final long MAX_CLOCK_SKEW_SECONDS = 60;
+
+    private final String issuer;
+    private final Vertx vertx;
+    private final WorkerExecutor executor;
+    private final int poolSize;
+    private final int maxBatch;
+    private final VerifiedTokenCache cache;
+    private final JwksCache jwks;
+    private final long inlineBudgetNanos;
+    private final Map<JWSAlgorithm, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final Map<String, Pending> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger drainers = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAccumulator peakQueued = new LongAccumulator(Math::max, 0);
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final LongAdder inline = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batched = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * @param maxBatch           most tokens a worker verifies before handing results back
+     * @param inlineBudgetMicros maximum average cost for verifying on the event loop; 0 disables
+     */
+    TokenVerifier(Vertx vertx, String issuer, int poolSize, int maxBatch, int cacheSize,
+                  JwksCache jwks, long inlineBudgetMicros) {
+        this.issuer = issuer;
+        this.vertx = vertx;
+        this.poolSize = poolSize;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.cache = new VerifiedTokenCache(cacheSize);
+        this.jwks = jwks;
+        this.inlineBudgetNanos = TimeUnit.MICROSECONDS.toNanos(inlineBudgetMicros);
+        this.executor = vertx.createSharedWorkerExecutor("jwt-verifier", poolSize);
+    }
+
+    Future<TokenClaims> verify(String token) {
+        TokenClaims cached = cache.get(token);
+        if (cached != null) {
+            return Future.succeededFuture(cached);
+        }
+
+        SignedJWT jwt;
+        try {
+            jwt = SignedJWT.parse(token);
+        } catch (Exception e) {
+            rejected.increment();
+            return Future.failedFuture(e);
+        }
+
+        Context context = vertx.getOrCreateContext();
+        String kid = jwt.getHeader().getKeyID();
+        if (!jwks.hasKey(kid)) {
+            // The key set is fetched on another context; return to the caller's before queueing
+            Promise<TokenClaims> promise = Promise.promise();
+            jwks.ensureKey(kid).onComplete(result -> context.runOnContext(v -> {
+                if (result.failed()) {
+                    promise.fail(result.cause());
+                } else {
+                    offload(token, jwt, context).onComplete(promise);
+                }
+            }));
+            return promise.future();
+        }
+
+        if (inlineBudgetNanos > 0 && recentCostNanos(jwt.getHeader().getAlgorithm()) <= inlineBudgetNanos) {
+            inline.increment();
+            try {
+                return Future.succeededFuture(process(token, jwt));
+            } catch (Exception e) {
+                return Future.failedFuture(e);
+            }
+        }
+        return offload(token, jwt, context);
+    }
+
+    /** Queues the token for the worker pool; the result is delivered on context. */
+    private Future<TokenClaims> offload(String token, SignedJWT jwt, Context context) {
+        Promise<TokenClaims> promise = Promise.promise();
+        while (true) {
+            Pending existing = inFlight.get(token);
+            if (existing == null) {
+                Pending created = new Pending(token, jwt);
+                created.join(context, promise);
+                existing = inFlight.putIfAbsent(token, created);
+                if (existing == null) {
+                    peakQueued.accumulate(queued.incrementAndGet());
+                    pending.add(created);
+                    startDrainer();
+                    return promise.future();
+                }
+            }
+            if (existing.join(context, promise)) {
+                deduplicated.increment();
+                return promise.future();
+            }
+            // Finished between lookup and join: its result is in the cache unless it failed
+            TokenClaims cached = cache.get(token);
+            if (cached != null) {
+                return Future.succeededFuture(cached);
+            }
+        }
+    }
+
+    private void startDrainer() {
+        for (int running = drainers.get(); running < poolSize; running = drainers.get()) {
+            if (drainers.compareAndSet(running, running + 1)) {
+                executor.executeBlocking(() -> {
+                    drain();
+                    return null;
+                }, false);
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            List<Pending> batch = new ArrayList<>(Math.min(maxBatch, 64));
+            for (Pending next; (next = poll()) != null; ) {
+                batch.add(next);
+                if (batch.size() == maxBatch) {
+                    verifyBatch(batch);
+                    batch = new ArrayList<>(Math.min(maxBatch, 64));
+                }
+            }
+            if (!batch.isEmpty()) {
+                verifyBatch(batch);
+            }
+            drainers.decrementAndGet();
+            // A token queued while this drainer was stopping must not be left behind
+        } while (!pending.isEmpty() && reacquire());
+    }
+
+    private Pending poll() {
+        Pending next = pending.poll();
+        if (next != null) {
+            queued.decrementAndGet();
+        }
+        return next;
+    }
+
+    private boolean reacquire() {
+        for (int running = drainers.get(); running < poolSize; running = drainers.get()) {
+            if (drainers.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void verifyBatch(List<Pending> batch) {
+        batches.increment();
+        batched.add(batch.size());
+        long started = System.nanoTime();
+        active.addAndGet(batch.size());
+        Map<Context, List<Runnable>> completions = new IdentityHashMap<>();
+        for (Pending item : batch) {
+            queueNanos.add(started - item.submitted);
+            try {
+                item.claims = process(item.token, item.jwt);
+            } catch (Exception e) {
+                item.failure = e;
+            }
+            // Later callers find the cache entry from here on
+            inFlight.remove(item.token, item);
+            for (Waiter waiter : item.finish()) {
+                completions.computeIfAbsent(waiter.context(), c -> new ArrayList<>()).add(() -> item.complete(waiter));
+            }
+            active.decrementAndGet();
+        }
+        completions.forEach((context, tasks) -> context.runOnContext(v -> tasks.forEach(Runnable::run)));
+    }
+
+    private TokenClaims process(String token, SignedJWT jwt) throws Exception {
+        long started = System.nanoTime();
+        LatencyHistogram latency = null;
+        try {
+            // Pre-built verifier for the kid: no key selection or key decoding per request
+            JWSVerifier verifier = jwks.registry().verifier(jwt.getHeader());
+            // Only algorithms some key accepts get a histogram, so headers cannot grow the map
+            latency = latencies.computeIfAbsent(jwt.getHeader().getAlgorithm(), alg -> new LatencyHistogram());
+            if (!jwt.verify(verifier)) {
+                throw new BadJWSException("Signed JWT rejected: Invalid signature");
+            }
+            TokenClaims claims = TokenClaims.parse(jwt.getPayload().toBytes());
+            claims.verify(issuer, System.currentTimeMillis(), MAX_CLOCK_SKEW_SECONDS);
+            verified.increment();
+            cache.put(token, claims);
+            return claims;
+        } catch (Exception e) {
+            rejected.increment();
+            throw e;
+        } finally {
+            long cost = System.nanoTime() - started;
+            verifyNanos.add(cost);
+            if (latency != null) {
+                latency.record(cost);
+            }
+        }
+    }
+
+    private long recentCostNanos(JWSAlgorithm alg) {
+        LatencyHistogram latency = latencies.get(alg);
+        return latency == null ? 0 : latency.recentNanos();
+    }
+
+    JsonObject metrics() {
+        JsonObject algorithms = new JsonObject();
+        latencies.forEach((alg, histogram) -> algorithms.put(alg.getName(), histogram.metrics()));
+        long done = verified.sum() + rejected.sum();
+        long offloaded = done - inline.sum();
+        return new JsonObject()
+            .put("poolSize", poolSize)
+            .put("queueDepth", queued.get())
+            .put("peakQueueDepth", peakQueued.get())
+            .put("active", active.get())
+            .put("verified", verified.sum())
+            .put("rejected", rejected.sum())
+            .put("inline", inline.sum())
+            .put("inlineBudgetMicros", TimeUnit.NANOSECONDS.toMicros(inlineBudgetNanos))
+            .put("avgQueueWaitMicros", offloaded <= 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queueNanos.sum() / offloaded))
+            .put("avgVerifyMicros", done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(verifyNanos.sum() / done))
+            .put("maxBatch", maxBatch)
+            .put("batches", batches.sum())
+            .put("avgBatchSize", batches.sum() == 0 ? 0 : (double) batched.sum() / batches.sum())
+            .put("deduplicated", deduplicated.sum())
+            .put("inFlight", inFlight.size())
+            .put("algorithms", algorithms)
+            .put("cache", cache.metrics());
+    }
+
+    void close() {
+        executor.close();
+    }
+
+    /** A token waiting for verification, together with everyone waiting on it. */
+    private static final class Pending {
+        final String token;
+        final SignedJWT jwt;
+        final long submitted = System.nanoTime();
+        private List<Waiter> waiters = new ArrayList<>(1);
+        TokenClaims claims;
+        Exception failure;
+
+        Pending(String token, SignedJWT jwt) {
+            this.token = token;
+            this.jwt = jwt;
+        }
+
+        /** Adds a waiter, or returns false if the verification has already finished. */
+        synchronized boolean join(Context context, Promise<TokenClaims> promise) {
+            if (waiters == null) {
+                return false;
+            }
+            waiters.add(new Waiter(context, promise));
+            return true;
+        }
+
+        synchronized List<Waiter> finish() {
+            List<Waiter> finished = waiters;
+            waiters = null;
+            return finished;
+        }
+
+        void complete(Waiter waiter) {
+            if (failure != null) {
+                waiter.promise().fail(failure);
+            } else {
+                waiter.promise().complete(claims);
+            }
+        }
+    }
+
+    private record Waiter(Context context, Promise<TokenClaims> promise) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.voting.api;
+
+import io.vertx.core.json.JsonObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens whose signature and claims have already been verified.
+ *
+ * Entries are looked up by the SHA-256 digest of the token rather than the token
+ * itself, which can run to a kilobyte or more; finding two tokens with the same
+ * digest is infeasible, so a lookup can never return someone else's claims. Each
+ * entry then costs a few hundred bytes, mostly the claim strings, or roughly
+ * 40 MB at 100000 entries. An entry is dropped once the token's exp passes. When
+ * the cache is over capacity, expired entries are swept first and then arbitrary
+ * ones are evicted until it is a tenth under the limit, so sweeps are amortized
+ * over many puts; a put that finds a sweep already running leaves it to that one.
+ */
+final class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /** Returns the verified claims for token, or null if it is not cached or has expired. */
+    TokenClaims get(String token) {
+        if (maxEntries <= 0) {
+            misses.increment();
+            return null;
+        }
+        Key key = Key.of(token);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (System.currentTimeMillis() < entry.expiresAt) {
+                hits.increment();
+                return entry.claims;
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(String token, TokenClaims claims) {
+        long exp = claims.expiresAt();
+        if (maxEntries <= 0 || exp == TokenClaims.ABSENT) {
+            return;
+        }
+        entries.put(Key.of(token), new Entry(claims, exp * 1000));
+        if (entries.size() > maxEntries && evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        int excess = entries.size() - (maxEntries - maxEntries / 10);
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        // Expired entries go first; an arbitrary live entry only if still over the limit
+        while (it.hasNext() && excess > 0) {
+            if (it.next().getValue().expiresAt <= now) {
+                it.remove();
+                evictions.increment();
+                excess--;
+            }
+        }
+        it = entries.entrySet().iterator();
+        while (it.hasNext() && excess > 0) {
+            it.next();
+            it.remove();
+            evictions.increment();
+            excess--;
+        }
+    }
+
+    JsonObject metrics() {
+        return new JsonObject()
+            .put("size", entries.size())
+            .put("maxEntries", maxEntries)
+            .put("hits", hits.sum())
+            .put("misses", misses.sum())
+            .put("evictions", evictions.sum());
+    }
+
+    private record Entry(TokenClaims claims, long expiresAt) {
+    }
+
+    private record Key(long a, long b, long c, long d) {
+
+        private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        });
+
+        static Key of(String token) {
+            ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new Key(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+    }
+}
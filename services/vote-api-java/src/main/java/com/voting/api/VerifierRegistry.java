@@ -0,0 +1,117 @@
+package com.voting.api;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.BadJOSEException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a JWKS with a ready-built signature verifier per kid.
+ *
+ * Building the verifiers (decoding the public key from the JWK and setting up the
+ * verifier) happens once, when a key set is loaded or refreshed, so the request
+ * path is only a header lookup plus the signature check itself.
+ *
+ * The verifier follows the key type: RSA keys verify RS and PS signatures, EC keys
+ * the ES algorithm of their curve, and Ed25519 keys EdDSA. A token's alg must be
+ * one its key's verifier supports and, when the JWK declares an alg, exactly that
+ * one, so a token can never pick a weaker algorithm than the key was published for.
+ */
+final class VerifierRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(VerifierRegistry.class);
+
+    static final VerifierRegistry EMPTY = new VerifierRegistry(new JWKSet(), Collections.emptyMap());
+
+    private final JWKSet keys;
+    private final Map<String, Entry> verifiers;
+
+    private VerifierRegistry(JWKSet keys, Map<String, Entry> verifiers) {
+        this.keys = keys;
+        this.verifiers = verifiers;
+    }
+
+    static VerifierRegistry of(JWKSet keys) {
+        Map<String, Entry> verifiers = new HashMap<>();
+        for (JWK key : keys.getKeys()) {
+            if (key.getKeyUse() == KeyUse.ENCRYPTION) {
+                continue;
+            }
+            try {
+                JWSVerifier verifier = verifierFor(key);
+                if (verifier == null) {
+                    logger.debug("Skipping JWKS key {} of type {}", key.getKeyID(), key.getKeyType());
+                    continue;
+                }
+                JWSAlgorithm declared = key.getAlgorithm() == null ? null : JWSAlgorithm.parse(key.getAlgorithm().getName());
+                verifiers.put(key.getKeyID(), new Entry(verifier, declared));
+            } catch (JOSEException e) {
+                logger.warn("Skipping unusable JWKS key {}", key.getKeyID(), e);
+            }
+        }
+        return new VerifierRegistry(keys, verifiers);
+    }
+
+    private static JWSVerifier verifierFor(JWK key) throws JOSEException {
+        if (key instanceof RSAKey rsaKey) {
+            return new RSASSAVerifier(rsaKey.toRSAPublicKey());
+        }
+        if (key instanceof ECKey ecKey) {
+            return new ECDSAVerifier(ecKey);
+        }
+        if (key instanceof OctetKeyPair okp) {
+            return new EdDsaVerifier(okp);
+        }
+        return null;
+    }
+
+    JWKSet keys() {
+        return keys;
+    }
+
+    boolean isEmpty() {
+        return verifiers.isEmpty();
+    }
+
+    boolean contains(String kid) {
+        return kid == null ? verifiers.size() == 1 : verifiers.containsKey(kid);
+    }
+
+    /** Returns the verifier for the header's kid; a header without kid needs a single-key set. */
+    JWSVerifier verifier(JWSHeader header) throws BadJOSEException {
+        String kid = header.getKeyID();
+        Entry entry = kid != null
+            ? verifiers.get(kid)
+            : verifiers.size() == 1 ? verifiers.values().iterator().next() : null;
+        if (entry == null) {
+            throw new BadJOSEException("Signed JWT rejected: no matching key for kid " + kid);
+        }
+        JWSAlgorithm alg = header.getAlgorithm();
+        if (!entry.verifier.supportedJWSAlgorithms().contains(alg)
+                || entry.declared != null && !entry.declared.equals(alg)) {
+            throw new BadJOSEException("Signed JWT rejected: algorithm " + alg + " not allowed for kid " + kid);
+        }
+        return entry.verifier;
+    }
+
+    int size() {
+        return verifiers.size();
+    }
+
+    private record Entry(JWSVerifier verifier, JWSAlgorithm declared) {
+    }
+}
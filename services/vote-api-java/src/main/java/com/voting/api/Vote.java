@@ -0,0 +1,9 @@
+package com.voting.api;
+
+/**
+ * A recorded vote in its compact form: its slot in the {@link VoteLog}, interned ids,
+ * epoch-millis timestamp and a 128-bit random id. Converted to JSON only at the
+ * HTTP boundary.
+ */
+record Vote(long slot, long idHi, long idLo, long votedAt, int election, int candidate, int sub) {
+}
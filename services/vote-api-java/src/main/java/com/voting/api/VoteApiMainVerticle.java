@@ -0,0 +1,60 @@
+package com.voting.api;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Promise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entry point started by the Vert.x Launcher: creates the shared {@link VoteServices}
+ * once, then deploys VERTICLE_INSTANCES copies of {@link VoteApiVerticle}, each on
+ * its own event loop, so request handling scales across cores instead of running
+ * on a single thread. Undeploying this verticle stops the HTTP verticles first and
+ * then closes the services.
+ */
+public class VoteApiMainVerticle extends AbstractVerticle {
+    private static final Logger logger = LoggerFactory.getLogger(VoteApiMainVerticle.class);
+
+    // HTTP verticle instances; 0 (the default) means one per core
+    private static final int VERTICLE_INSTANCES = instances(Integer.parseInt(System.getenv()
+            .getOrDefault("VERTICLE_INSTANCES", "0")));
+
+    private VoteServices services;
+
+    private static int instances(int configured) {
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void start(Promise<Void> startPromise) {
+        if (vertx.isNativeTransportEnabled()) {
+            logger.info("Using the native transport");
+        } else {
+            logger.info("Native transport not in use, falling back to NIO: {}",
+                String.valueOf(vertx.unavailableNativeTransportCause()));
+        }
+
+        VoteServices.start(vertx)
+            .compose(started -> {
+                services = started;
+                return vertx.deployVerticle(() -> new VoteApiVerticle(started),
+                    new DeploymentOptions().setInstances(VERTICLE_INSTANCES));
+            })
+            .onSuccess(id -> {
+                logger.info("vote-api-java listening on port {} with {} verticle instances",
+                    VoteApiVerticle.PORT, VERTICLE_INSTANCES);
+                startPromise.complete();
+            })
+            .onFailure(startPromise::fail);
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+        if (services == null) {
+            stopPromise.complete();
+            return;
+        }
+        services.close().onComplete(stopPromise);
+    }
+}
@@ -4,118 +4,166 @@ import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.handler.BodyHandler;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.proc.DefaultJWTProcessor;
-import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
-import com.nimbusds.jose.proc.JWSVerificationKeySelector;
-import com.nimbusds.jose.JWSAlgorithm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.ParseException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * HTTP front end of the vote API. {@link VoteApiMainVerticle} deploys several
+ * instances, one per event loop, all backed by the same {@link VoteServices}.
+ */
 public class VoteApiVerticle extends AbstractVerticle {
     private static final Logger logger = LoggerFactory.getLogger(VoteApiVerticle.class);
 
-    private static final int PORT = Integer.parseInt(System.getenv().getOrDefault("PORT", "4000"));
-    private static final String ISSUER_EXPECTED = System.getenv()
-            .getOrDefault("OIDC_ISSUER_URL_PUBLIC", "http://localhost:4444/")
-            .replaceAll("/$", "");
-    private static final String JWKS_URL = System.getenv()
-            .getOrDefault("OIDC_JWKS_URL", "http://hydra:4444/.well-known/jwks.json");
+    static final int PORT = Integer.parseInt(System.getenv().getOrDefault("PORT", "4000"));
     private static final String REQUIRED_SCOPE = System.getenv()
             .getOrDefault("REQUIRED_SCOPE", "vote:cast");
+    // HTTP server profile: accept queue, socket options (the TCP ones need the native transport) and compression
+    private static final int HTTP_ACCEPT_BACKLOG = Integer.parseInt(System.getenv()
+            .getOrDefault("HTTP_ACCEPT_BACKLOG", "8192"));
+    private static final boolean HTTP_REUSE_PORT = Boolean.parseBoolean(System.getenv()
+            .getOrDefault("HTTP_REUSE_PORT", "true"));
+    private static final boolean HTTP_TCP_NO_DELAY = Boolean.parseBoolean(System.getenv()
+            .getOrDefault("HTTP_TCP_NO_DELAY", "true"));
+    private static final boolean HTTP_TCP_QUICK_ACK = Boolean.parseBoolean(System.getenv()
+            .getOrDefault("HTTP_TCP_QUICK_ACK", "true"));
+    private static final boolean HTTP_TCP_FAST_OPEN = Boolean.parseBoolean(System.getenv()
+            .getOrDefault("HTTP_TCP_FAST_OPEN", "true"));
+    private static final boolean HTTP_COMPRESSION = Boolean.parseBoolean(System.getenv()
+            .getOrDefault("HTTP_COMPRESSION", "false"));
+    // Cleartext HTTP/2 (prior knowledge or Upgrade: h2c) alongside HTTP/1.1, and its per-connection limits
+    private static final boolean HTTP2_ENABLED = Boolean.parseBoolean(System.getenv()
+            .getOrDefault("HTTP2_ENABLED", "true"));
+    private static final long HTTP2_MAX_CONCURRENT_STREAMS = Long.parseLong(System.getenv()
+            .getOrDefault("HTTP2_MAX_CONCURRENT_STREAMS", "1000"));
+    private static final int HTTP2_INITIAL_WINDOW_SIZE = Integer.parseInt(System.getenv()
+            .getOrDefault("HTTP2_INITIAL_WINDOW_SIZE", "65535"));
+    private static final int HTTP2_CONNECTION_WINDOW_SIZE = Integer.parseInt(System.getenv()
+            .getOrDefault("HTTP2_CONNECTION_WINDOW_SIZE", "4194304"));
+    // Largest accepted request body in bytes; bigger ones get 413 without being buffered
+    private static final long VOTE_BODY_LIMIT = Long.parseLong(System.getenv()
+            .getOrDefault("VOTE_BODY_LIMIT", "4096"));
+    private static final long DENYLIST_BODY_LIMIT = Long.parseLong(System.getenv()
+            .getOrDefault("DENYLIST_BODY_LIMIT", "1048576"));
+    // Bearer token enabling POST /admin/denylist; the endpoint is not routed when unset
+    private static final String DENYLIST_ADMIN_TOKEN = System.getenv()
+            .getOrDefault("DENYLIST_ADMIN_TOKEN", "");
+    // GET /votes pagination and NDJSON streaming
+    private static final int VOTES_PAGE_DEFAULT = 1000;
+    private static final int VOTES_PAGE_MAX = 10000;
+    private static final int VOTES_STREAM_CHUNK = 256;
 
-    // In-memory store (replace with PostgreSQL/Kafka for production)
-    private final List<JsonObject> votes = Collections.synchronizedList(new ArrayList<>());
-    
-    // JWKS cache
-    private DefaultJWTProcessor<SecurityContext> jwtProcessor;
-    private WebClient webClient;
+    private final VoteStore store;
+    private final GroupCommitter committer;
+    private final PgVoteWriter pgWriter;
+    private final JwksCache jwksCache;
+    private final TokenVerifier tokenVerifier;
+    private final Denylist denylist;
+    private final RateLimiter subjectLimiter;
+    private final RateLimiter ipLimiter;
+    private final int port;
+    private final String denylistAdminToken;
+    private HttpServer server;
+
+    VoteApiVerticle(VoteServices services) {
+        this(services, PORT, DENYLIST_ADMIN_TOKEN);
+    }
+
+    /** For tests: port 0 picks a free port, see {@link #actualPort()}. */
+    VoteApiVerticle(VoteServices services, int port, String denylistAdminToken) {
+        this.store = services.store();
+        this.committer = services.committer();
+        this.pgWriter = services.pgWriter();
+        this.jwksCache = services.jwksCache();
+        this.tokenVerifier = services.tokenVerifier();
+        this.denylist = services.denylist();
+        this.subjectLimiter = services.subjectLimiter();
+        this.ipLimiter = services.ipLimiter();
+        this.port = port;
+        this.denylistAdminToken = denylistAdminToken;
+    }
 
     @Override
     public void start(Promise<Void> startPromise) {
-        webClient = WebClient.create(vertx);
-        
-        // Initialize JWKS cache
-        initializeJWKS()
-            .compose(v -> setupRouter())
-            .onSuccess(router -> {
-                vertx.createHttpServer()
-                    .requestHandler(router)
-                    .listen(PORT)
-                    .onSuccess(server -> {
-                        logger.info("vote-api-java listening on port {}", PORT);
-                        startPromise.complete();
-                    })
-                    .onFailure(startPromise::fail);
-            })
-            .onFailure(startPromise::fail);
+        // Every instance listens on the same port; Vert.x spreads connections across them
+        setupRouter()
+            .compose(router -> vertx.createHttpServer(serverOptions())
+                .requestHandler(router)
+                .listen(port))
+            .onSuccess(listening -> server = listening)
+            .<Void>mapEmpty()
+            .onComplete(startPromise);
     }
 
-    private Future<Void> initializeJWKS() {
-        Promise<Void> promise = Promise.promise();
-        
-        logger.info("Fetching JWKS from {}", JWKS_URL);
-        
-        try {
-            // Fetch JWKS and cache it
-            URL jwksUrl = new URL(JWKS_URL);
-            JWKSet jwkSet = JWKSet.load(jwksUrl);
-            
-            JWKSource<SecurityContext> jwkSource = new ImmutableJWKSet<>(jwkSet);
-            
-            jwtProcessor = new DefaultJWTProcessor<>();
-            jwtProcessor.setJWSKeySelector(
-                new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource)
-            );
-            
-            // Set claims verifier for issuer
-            jwtProcessor.setJWTClaimsSetVerifier(
-                new DefaultJWTClaimsVerifier<>(
-                    new JWTClaimsSet.Builder()
-                        .issuer(ISSUER_EXPECTED + "/")
-                        .build(),
-                    new HashSet<>(Arrays.asList("sub", "exp", "iat"))
-                )
-            );
-            
-            logger.info("JWKS cached successfully");
-            promise.complete();
-        } catch (Exception e) {
-            logger.error("Failed to fetch JWKS", e);
-            promise.fail(e);
-        }
-        
-        return promise.future();
+    int actualPort() {
+        return server.actualPort();
+    }
+
+    private static HttpServerOptions serverOptions() {
+        return new HttpServerOptions()
+            .setAcceptBacklog(HTTP_ACCEPT_BACKLOG)
+            // Lets another process bind the port too; instances in this JVM share one socket and Vert.x round-robins accepts
+            .setReusePort(HTTP_REUSE_PORT)
+            .setTcpNoDelay(HTTP_TCP_NO_DELAY)
+            .setTcpQuickAck(HTTP_TCP_QUICK_ACK)
+            .setTcpFastOpen(HTTP_TCP_FAST_OPEN)
+            // Vote responses are a few hundred bytes, so compressing them costs more CPU than it saves
+            .setCompressionSupported(HTTP_COMPRESSION)
+            .setHttp2ClearTextEnabled(HTTP2_ENABLED)
+            .setInitialSettings(new Http2Settings()
+                .setMaxConcurrentStreams(HTTP2_MAX_CONCURRENT_STREAMS)
+                .setInitialWindowSize(HTTP2_INITIAL_WINDOW_SIZE))
+            // All streams of a connection share this window; the 64 KiB default would stall a busy gateway link
+            .setHttp2ConnectionWindowSize(HTTP2_CONNECTION_WINDOW_SIZE);
     }
 
     private Future<Router> setupRouter() {
         Router router = Router.router(vertx);
         
-        router.route().handler(BodyHandler.create());
-        
         router.get("/").handler(this::handleRoot);
         router.get("/health").handler(this::handleHealth);
-        router.post("/vote").handler(this::handleVote);
+        router.get("/ready").handler(this::handleReady);
+        router.get("/metrics").handler(this::handleMetrics);
+        // Only the POST routes buffer a body, in memory and capped; no file uploads, so no uploads directory
+        router.post("/vote")
+            .handler(bodyHandler(VOTE_BODY_LIMIT))
+            .handler(this::handleVote);
         router.get("/votes").handler(this::handleGetVotes);
         router.get("/votes/:electionId").handler(this::handleGetElectionVotes);
+        if (!denylistAdminToken.isEmpty()) {
+            router.post("/admin/denylist")
+                .handler(bodyHandler(DENYLIST_BODY_LIMIT))
+                .handler(this::handleDenylist);
+        }
+        router.errorHandler(413, ctx -> ctx.response()
+            .setStatusCode(413)
+            .putHeader("content-type", "application/json")
+            .end(new JsonObject().put("error", "request body too large").encode()));
         
         return Future.succeededFuture(router);
     }
 
+    private static BodyHandler bodyHandler(long limit) {
+        // Rejects on Content-Length before reading, or as soon as a chunked body passes the limit
+        return BodyHandler.create(false)
+            .setBodyLimit(limit)
+            .setPreallocateBodyBuffer(true);
+    }
+
     private void handleRoot(RoutingContext ctx) {
         ctx.response()
             .putHeader("content-type", "application/json")
@@ -128,10 +176,75 @@ public class VoteApiVerticle extends AbstractVerticle {
     private void handleHealth(RoutingContext ctx) {
         ctx.response()
             .putHeader("content-type", "application/json")
-            .end(new JsonObject().put("ok", true).encode());
+            .end(new JsonObject()
+                .put("ok", true)
+                .put("ready", jwksCache.ready())
+                .encode());
+    }
+
+    private void handleReady(RoutingContext ctx) {
+        boolean ready = jwksCache.ready();
+        ctx.response()
+            .setStatusCode(ready ? 200 : 503)
+            .putHeader("content-type", "application/json")
+            .end(new JsonObject().put("ready", ready).encode());
+    }
+
+    private void handleMetrics(RoutingContext ctx) {
+        ctx.response()
+            .putHeader("content-type", "application/json")
+            .end(new JsonObject()
+                .put("jwtVerifier", tokenVerifier.metrics())
+                .put("jwks", jwksCache.metrics())
+                .put("denylist", denylist.metrics())
+                .put("rateLimit", new JsonObject()
+                    .put("subject", subjectLimiter.metrics())
+                    .put("ip", ipLimiter.metrics()))
+                .encode());
+    }
+
+    private void handleDenylist(RoutingContext ctx) {
+        String authHeader = ctx.request().getHeader("Authorization");
+        byte[] expected = ("Bearer " + denylistAdminToken).getBytes(StandardCharsets.UTF_8);
+        if (authHeader == null || !MessageDigest.isEqual(expected, authHeader.getBytes(StandardCharsets.UTF_8))) {
+            ctx.response()
+                .setStatusCode(401)
+                .putHeader("content-type", "application/json")
+                .end(new JsonObject().put("error", "unauthorized").encode());
+            return;
+        }
+
+        int applied;
+        try {
+            JsonObject body = ctx.body().asJsonObject();
+            if (body == null) {
+                throw new IllegalArgumentException("empty body");
+            }
+            applied = denylist.apply(body);
+        } catch (RuntimeException e) {
+            ctx.response()
+                .setStatusCode(400)
+                .putHeader("content-type", "application/json")
+                .end(new JsonObject().put("error", "invalid denylist document").encode());
+            return;
+        }
+
+        logger.info("Denylist updated with {} entries", applied);
+        ctx.response()
+            .putHeader("content-type", "application/json")
+            .end(new JsonObject().put("applied", applied).encode());
     }
 
     private void handleVote(RoutingContext ctx) {
+        // Before any token work, so a flood from one address cannot tie up the verifiers
+        if (ipLimiter.enabled()) {
+            long wait = ipLimiter.acquire(ctx.request().remoteAddress().host());
+            if (wait > 0) {
+                rateLimited(ctx, wait);
+                return;
+            }
+        }
+
         String authHeader = ctx.request().getHeader("Authorization");
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -142,10 +255,33 @@ public class VoteApiVerticle extends AbstractVerticle {
             return;
         }
 
+        if (!jwksCache.ready()) {
+            ctx.response()
+                .setStatusCode(503)
+                .putHeader("content-type", "application/json")
+                .end(new JsonObject().put("error", "signing keys not loaded yet").encode());
+            return;
+        }
+
         String token = authHeader.substring(7);
         
         verifyToken(token)
-            .onSuccess(claims -> processVote(ctx, claims))
+            .onSuccess(claims -> {
+                if (denylist.isRevoked(claims)) {
+                    ctx.response()
+                        .setStatusCode(401)
+                        .putHeader("content-type", "application/json")
+                        .end(new JsonObject().put("error", "token revoked").encode());
+                    return;
+                }
+                // Only verified subjects count, so a forged sub cannot drain someone else's bucket
+                long wait = subjectLimiter.acquire(claims.subject());
+                if (wait > 0) {
+                    rateLimited(ctx, wait);
+                    return;
+                }
+                processVote(ctx, claims);
+            })
             .onFailure(err -> {
                 logger.error("Token verification failed", err);
                 ctx.response()
@@ -155,22 +291,22 @@ public class VoteApiVerticle extends AbstractVerticle {
             });
     }
 
-    private Future<JWTClaimsSet> verifyToken(String token) {
-        return vertx.executeBlocking(promise -> {
-            try {
-                JWTClaimsSet claims = jwtProcessor.process(token, null);
-                promise.complete(claims);
-            } catch (Exception e) {
-                promise.fail(e);
-            }
-        });
+    private void rateLimited(RoutingContext ctx, long waitNanos) {
+        ctx.response()
+            .setStatusCode(429)
+            .putHeader("content-type", "application/json")
+            .putHeader("retry-after", String.valueOf(RateLimiter.retryAfterSeconds(waitNanos)))
+            .end(new JsonObject().put("error", "too many requests").encode());
+    }
+
+    private Future<TokenClaims> verifyToken(String token) {
+        return tokenVerifier.verify(token);
     }
 
-    private void processVote(RoutingContext ctx, JWTClaimsSet claims) {
+    private void processVote(RoutingContext ctx, TokenClaims claims) {
         try {
             // Check scopes
-            List<String> scopes = extractScopes(claims);
-            if (!scopes.contains(REQUIRED_SCOPE)) {
+            if (!claims.hasScope(REQUIRED_SCOPE)) {
                 ctx.response()
                     .setStatusCode(403)
                     .putHeader("content-type", "application/json")
@@ -178,17 +314,26 @@ public class VoteApiVerticle extends AbstractVerticle {
                 return;
             }
 
-            JsonObject body = ctx.body().asJsonObject();
-            if (body == null) {
+            Buffer body = ctx.body().buffer();
+            VoteRequest request;
+            try {
+                if (body == null) {
+                    throw new ParseException("Empty body", 0);
+                }
+                request = VoteRequest.parse(body);
+            } catch (ParseException e) {
                 ctx.response()
                     .setStatusCode(400)
                     .putHeader("content-type", "application/json")
-                    .end(new JsonObject().put("error", "invalid json body").encode());
+                    .end(new JsonObject()
+                        .put("error", "invalid json body")
+                        .put("reason", e.getMessage())
+                        .encode());
                 return;
             }
 
-            String electionId = body.getString("electionId");
-            String candidateId = body.getString("candidateId");
+            String electionId = request.electionId();
+            String candidateId = request.candidateId();
 
             if (electionId == null || candidateId == null) {
                 ctx.response()
@@ -200,15 +345,60 @@ public class VoteApiVerticle extends AbstractVerticle {
                 return;
             }
 
-            String sub = claims.getSubject();
+            String sub = claims.subject();
 
-            // Check for existing vote
-            synchronized (votes) {
-                boolean alreadyVoted = votes.stream()
-                    .anyMatch(v -> v.getString("electionId").equals(electionId) 
-                                && v.getString("sub").equals(sub));
+            // Claim the voter's ballot in this election; only this election's index is touched
+            VoteStore.Election election = store.election(electionId);
+            int voter = store.intern(sub);
+            if (!election.claim(voter)) {
+                ctx.response()
+                    .setStatusCode(409)
+                    .putHeader("content-type", "application/json")
+                    .end(new JsonObject()
+                        .put("error", "already voted in this election")
+                        .encode());
+                return;
+            }
 
-                if (alreadyVoted) {
+            recordVote(ctx, election, voter, electionId, candidateId, sub);
+        } catch (Exception e) {
+            logger.error("Error processing vote", e);
+            ctx.response()
+                .setStatusCode(500)
+                .putHeader("content-type", "application/json")
+                .end(new JsonObject().put("error", e.getMessage()).encode());
+        }
+    }
+
+    private void recordVote(RoutingContext ctx, VoteStore.Election election, int voter,
+                            String electionId, String candidateId, String sub) {
+        Vote prepared = store.prepare(election, voter, candidateId);
+
+        // The database has the final say on duplicates across instances
+        Future<Boolean> persisted = pgWriter != null
+            ? pgWriter.insert(electionId, candidateId, sub, prepared)
+            : Future.succeededFuture(true);
+        persisted.onFailure(err -> election.release(voter));
+
+        persisted
+            .compose(inserted -> {
+                if (!inserted) {
+                    return Future.succeededFuture((Vote) null);
+                }
+                // Record vote; reply only once the ledger batch holding it is durable
+                Vote vote = store.record(election, prepared);
+                if (committer == null) {
+                    return Future.succeededFuture(vote);
+                }
+                Future<Vote> committed = committer.commit(vote.slot()).map(vote);
+                // The database row is the commit point: the vote stands, and a restart restores it from there
+                return pgWriter == null ? committed : committed.recover(err -> {
+                    logger.error("Vote {} is in PostgreSQL but its ledger sync failed", vote.slot(), err);
+                    return Future.succeededFuture(vote);
+                });
+            })
+            .onSuccess(vote -> {
+                if (vote == null) {
                     ctx.response()
                         .setStatusCode(409)
                         .putHeader("content-type", "application/json")
@@ -218,16 +408,6 @@ public class VoteApiVerticle extends AbstractVerticle {
                     return;
                 }
 
-                // Record vote
-                JsonObject vote = new JsonObject()
-                    .put("id", UUID.randomUUID().toString())
-                    .put("electionId", electionId)
-                    .put("candidateId", candidateId)
-                    .put("sub", sub)
-                    .put("votedAt", new Date().toInstant().toString());
-
-                votes.add(vote);
-
                 logger.info("Vote recorded: election={}, candidate={}, voter={}", 
                     electionId, candidateId, sub);
 
@@ -236,63 +416,119 @@ public class VoteApiVerticle extends AbstractVerticle {
                     .putHeader("content-type", "application/json")
                     .end(new JsonObject()
                         .put("success", true)
-                        .put("vote", vote)
+                        .put("vote", store.toJson(vote))
                         .encode());
-            }
-        } catch (Exception e) {
-            logger.error("Error processing vote", e);
+            })
+            .onFailure(err -> {
+                if (err instanceof PgVoteWriter.BacklogFullException) {
+                    ctx.response()
+                        .setStatusCode(503)
+                        .putHeader("content-type", "application/json")
+                        .putHeader("retry-after", "1")
+                        .end(new JsonObject().put("error", "too many votes in progress, retry later").encode());
+                    return;
+                }
+                ctx.response()
+                    .setStatusCode(500)
+                    .putHeader("content-type", "application/json")
+                    .end(new JsonObject().put("error", "vote could not be persisted").encode());
+            });
+    }
+
+    private void handleGetVotes(RoutingContext ctx) {
+        long cursor;
+        int limit;
+        try {
+            cursor = Long.parseLong(Objects.requireNonNullElse(ctx.request().getParam("cursor"), "0"));
+            limit = Integer.parseInt(Objects.requireNonNullElse(ctx.request().getParam("limit"),
+                String.valueOf(VOTES_PAGE_DEFAULT)));
+        } catch (NumberFormatException e) {
+            cursor = -1;
+            limit = -1;
+        }
+        if (cursor < 0 || limit <= 0) {
             ctx.response()
-                .setStatusCode(500)
+                .setStatusCode(400)
                 .putHeader("content-type", "application/json")
-                .end(new JsonObject().put("error", e.getMessage()).encode());
+                .end(new JsonObject().put("error", "cursor and limit must be non-negative integers").encode());
+            return;
         }
-    }
 
-    private List<String> extractScopes(JWTClaimsSet claims) {
-        try {
-            // Try 'scope' (space-separated string)
-            String scopeString = claims.getStringClaim("scope");
-            if (scopeString != null) {
-                return Arrays.asList(scopeString.split(" "));
-            }
+        String accept = ctx.request().getHeader("Accept");
+        if ("ndjson".equals(ctx.request().getParam("format"))
+                || (accept != null && accept.contains("application/x-ndjson"))) {
+            ctx.response()
+                .setChunked(true)
+                .putHeader("content-type", "application/x-ndjson");
+            streamVotes(ctx.response(), cursor);
+            return;
+        }
 
-            // Try 'scp' (array)
-            List<String> scpArray = claims.getStringListClaim("scp");
-            if (scpArray != null) {
-                return scpArray;
+        // Stop at the first vote still being recorded so a later page cannot miss it
+        VoteLog log = store.log();
+        JsonArray page = new JsonArray();
+        long slot = cursor;
+        for (long end = log.size(); slot < end && page.size() < Math.min(limit, VOTES_PAGE_MAX); slot++) {
+            Vote vote = log.read(slot);
+            if (vote != null) {
+                page.add(store.toJson(vote));
+            } else if (log.inFlight(slot)) {
+                break;
             }
-        } catch (Exception e) {
-            logger.warn("Failed to extract scopes", e);
         }
-        return Collections.emptyList();
+        ctx.response()
+            .putHeader("content-type", "application/json")
+            .end(new JsonObject()
+                .put("votes", page)
+                .put("nextCursor", slot < log.size() ? slot : null)
+                .encode());
     }
 
-    private void handleGetVotes(RoutingContext ctx) {
-        JsonArray result = new JsonArray();
-        synchronized (votes) {
-            votes.forEach(result::add);
+    /**
+     * Writes one vote per line starting at slot, a chunk at a time, pausing while the
+     * connection's write queue is full. Ends at the log size seen when the request
+     * started, or earlier at a vote that is still being recorded.
+     */
+    private void streamVotes(HttpServerResponse response, long slot) {
+        VoteLog log = store.log();
+        long end = log.size();
+        while (slot < end) {
+            if (response.closed()) {
+                return;
+            }
+            if (response.writeQueueFull()) {
+                long resumeAt = slot;
+                response.drainHandler(v -> streamVotes(response, resumeAt));
+                return;
+            }
+            Buffer chunk = Buffer.buffer(VOTES_STREAM_CHUNK * 192);
+            for (int n = 0; slot < end && n < VOTES_STREAM_CHUNK; slot++) {
+                Vote vote = log.read(slot);
+                if (vote != null) {
+                    chunk.appendString(store.toJson(vote).encode()).appendByte((byte) '\n');
+                    n++;
+                } else if (log.inFlight(slot)) {
+                    end = slot;
+                }
+            }
+            response.write(chunk);
         }
-        ctx.response()
-            .putHeader("content-type", "application/json")
-            .end(result.encode());
+        response.end();
     }
 
     private void handleGetElectionVotes(RoutingContext ctx) {
         String electionId = ctx.pathParam("electionId");
         
-        Map<String, Integer> counts = new ConcurrentHashMap<>();
-        int total;
-        
-        synchronized (votes) {
-            List<JsonObject> filtered = votes.stream()
-                .filter(v -> v.getString("electionId").equals(electionId))
-                .toList();
-            
-            total = filtered.size();
-            filtered.forEach(v -> {
-                String candidateId = v.getString("candidateId");
-                counts.merge(candidateId, 1, Integer::sum);
-            });
+        JsonObject counts = new JsonObject();
+        long total = 0;
+
+        VoteStore.Election election = store.find(electionId);
+        if (election != null) {
+            for (Map.Entry<Integer, LongAdder> tally : election.tallies().entrySet()) {
+                long count = tally.getValue().sum();
+                counts.put(store.symbol(tally.getKey()), count);
+                total += count;
+            }
         }
 
         ctx.response()
@@ -300,7 +536,7 @@ public class VoteApiVerticle extends AbstractVerticle {
             .end(new JsonObject()
                 .put("electionId", electionId)
                 .put("total", total)
-                .put("counts", new JsonObject((Buffer) counts))
+                .put("counts", counts)
                 .encode());
     }
 }
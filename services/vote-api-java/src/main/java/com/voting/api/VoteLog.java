@@ -0,0 +1,51 @@
+package com.voting.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Append-only log of compact vote records addressed by slot number.
+ *
+ * Writers reserve a slot and then commit it; a reserved slot that has not been
+ * committed yet reads as null, so readers never see a partially written vote.
+ */
+interface VoteLog extends Closeable {
+
+    /** Reserves the next slot; it stays in flight until {@link #write} commits it. */
+    long reserve();
+
+    /** Fills a reserved slot and commits it. */
+    void write(long slot, long idHi, long idLo, long votedAt, int election, int candidate, int sub);
+
+    /** Appends a vote and returns its slot. */
+    default long append(long idHi, long idLo, long votedAt, int election, int candidate, int sub) {
+        long slot = reserve();
+        write(slot, idHi, idLo, votedAt, election, candidate, sub);
+        return slot;
+    }
+
+    /** Number of reserved slots; slots below it may still be in flight. */
+    long size();
+
+    /** Returns the vote in slot, or null if the slot has not been committed yet. */
+    Vote read(long slot);
+
+    /**
+     * True if slot is reserved but not committed yet, and may still commit. Slots
+     * left empty by a crash read as null without being in flight.
+     */
+    default boolean inFlight(long slot) {
+        return slot >= 0 && slot < size() && read(slot) == null;
+    }
+
+    /**
+     * Makes the committed slots in [from, to) durable. Logs that are not backed by
+     * storage have nothing to do.
+     */
+    default void sync(long from, long to) throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
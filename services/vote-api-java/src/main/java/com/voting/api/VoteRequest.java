@@ -0,0 +1,102 @@
+package com.voting.api;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.text.ParseException;
+
+/**
+ * The POST /vote body, {"electionId": "...", "candidateId": "..."}, read straight
+ * from the request buffer.
+ *
+ * Rather than decoding the body into a JsonObject tree, one pass over its bytes
+ * keeps the two ids and skips any other field. Besides malformed JSON, it rejects
+ * ids that are not strings, appear twice, or are empty or longer than
+ * {@link #MAX_ID_LENGTH}. A missing or null id is left null for the caller to report.
+ */
+final class VoteRequest {
+
+    static final int MAX_ID_LENGTH = 128;
+
+    private String electionId;
+    private String candidateId;
+
+    private VoteRequest() {
+    }
+
+    static VoteRequest parse(Buffer body) throws ParseException {
+        VoteRequest request = new VoteRequest();
+        new Reader(body).readInto(request);
+        return request;
+    }
+
+    String electionId() {
+        return electionId;
+    }
+
+    String candidateId() {
+        return candidateId;
+    }
+
+    private static final class Reader extends JsonCursor {
+        private static final String[] KEYS = {"electionId", "candidateId"};
+
+        private boolean seenElection;
+        private boolean seenCandidate;
+
+        Reader(Buffer body) {
+            super(body);
+        }
+
+        void readInto(VoteRequest request) throws ParseException {
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    String key = readKey(KEYS);
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    if ("electionId".equals(key)) {
+                        if (seenElection) {
+                            throw error("Duplicate electionId");
+                        }
+                        seenElection = true;
+                        request.electionId = readId(key);
+                    } else if ("candidateId".equals(key)) {
+                        if (seenCandidate) {
+                            throw error("Duplicate candidateId");
+                        }
+                        seenCandidate = true;
+                        request.candidateId = readId(key);
+                    } else {
+                        skipValue();
+                    }
+                    skipWhitespace();
+                    byte next = next();
+                    if (next == '}') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            expectEnd();
+        }
+
+        private String readId(String key) throws ParseException {
+            if (peek() != '"' && peek() != 'n') {
+                throw error(key + " must be a string");
+            }
+            String id = readNullableString();
+            if (id != null && (id.isEmpty() || id.length() > MAX_ID_LENGTH)) {
+                throw error(key + " must be 1 to " + MAX_ID_LENGTH + " characters");
+            }
+            return id;
+        }
+    }
+}
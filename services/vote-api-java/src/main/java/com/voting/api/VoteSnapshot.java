@@ -0,0 +1,126 @@
+package com.voting.api;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact point-in-time image of a {@link VoteStore}'s voter index and tallies.
+ *
+ * The watermark is the ledger slot up to which every vote is included; on startup
+ * only the ledger from the watermark onwards is replayed. Ballots in later slots
+ * are left out even if they are already cast, since the ledger may lose them in a
+ * crash. File layout (big-endian):
+ *
+ * <pre>
+ *   int  magic, int version, long watermark, int electionCount
+ *   per election:
+ *     int election symbol
+ *     (int sub, int candidate)*   terminated by sub = -1
+ *     int tallyCount, (int candidate, long count)*
+ * </pre>
+ *
+ * Snapshots are written to a temporary file, synced, and atomically renamed over
+ * the previous one, so a crash leaves either the old or the new snapshot.
+ */
+final class VoteSnapshot {
+
+    private static final int MAGIC = 0x56534e50; // "VSNP"
+    private static final int VERSION = 1;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path file;
+    private final long watermark;
+
+    private VoteSnapshot(Path file, long watermark) {
+        this.file = file;
+        this.watermark = watermark;
+    }
+
+    /** Reads the snapshot header, or returns null if no snapshot has been written yet. */
+    static VoteSnapshot open(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unrecognized vote snapshot " + file);
+            }
+            return new VoteSnapshot(file, in.readLong());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    long watermark() {
+        return watermark;
+    }
+
+    /** Loads the snapshot into a freshly opened store whose symbols are already loaded. */
+    void restore(VoteStore store) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES))) {
+            in.readInt();
+            in.readInt();
+            in.readLong();
+            int elections = in.readInt();
+            for (int e = 0; e < elections; e++) {
+                VoteStore.Election election = store.election(store.symbol(in.readInt()));
+                for (int sub = in.readInt(); sub >= 0; sub = in.readInt()) {
+                    election.load(sub, in.readInt());
+                }
+                int tallies = in.readInt();
+                for (int t = 0; t < tallies; t++) {
+                    election.loadTally(in.readInt(), in.readLong());
+                }
+            }
+        }
+    }
+
+    static void write(Path file, long watermark, VoteStore store) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_BYTES))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(watermark);
+            // Elections created after this point are covered by the replayed tail, as are those
+            // whose symbol is not journaled yet: none of their ballots can be below the watermark
+            int symbols = store.durableSymbols();
+            VoteStore.Election[] elections = store.elections().stream()
+                .filter(election -> election.symbol() < symbols)
+                .toArray(VoteStore.Election[]::new);
+            out.writeInt(elections.length);
+            for (VoteStore.Election election : elections) {
+                out.writeInt(election.symbol());
+                // Tallies are derived from the ballots written, so both always agree
+                Map<Integer, long[]> tallies = new HashMap<>();
+                for (Map.Entry<Integer, VoteStore.Ballot> ballot : election.ballots().entrySet()) {
+                    // Later ballots may not be durable yet; the replayed tail brings them back
+                    if (ballot.getValue().slot() >= watermark) {
+                        continue;
+                    }
+                    int candidate = ballot.getValue().candidate();
+                    out.writeInt(ballot.getKey());
+                    out.writeInt(candidate);
+                    tallies.computeIfAbsent(candidate, c -> new long[1])[0]++;
+                }
+                out.writeInt(-1);
+                out.writeInt(tallies.size());
+                for (Map.Entry<Integer, long[]> tally : tallies.entrySet()) {
+                    out.writeInt(tally.getKey());
+                    out.writeLong(tally.getValue()[0]);
+                }
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
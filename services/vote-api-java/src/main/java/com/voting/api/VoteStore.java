@@ -0,0 +1,292 @@
+package com.voting.api;
+
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory vote store partitioned by election.
+ *
+ * Each election owns its own voter index and tallies, so writers in different
+ * elections never touch the same data structure. Per-candidate tallies are
+ * maintained at write time so reading results costs O(candidates) rather than a
+ * scan of the log. Votes themselves are kept in compact primitive form in a shared
+ * lock-free {@link VoteLog}, with ids interned through a {@link SymbolTable}.
+ *
+ * A store opened on a data directory keeps the log in a memory-mapped ledger and
+ * the symbols in a journal next to it. On startup the voter index and tallies are
+ * loaded from the latest {@link VoteSnapshot} and only the ledger tail written
+ * after it is replayed.
+ */
+class VoteStore implements AutoCloseable {
+
+    static final String LEDGER_FILE = "votes.ledger";
+    static final String SYMBOLS_FILE = "symbols.log";
+    static final String SNAPSHOT_FILE = "votes.snapshot";
+
+    private final SymbolTable symbols;
+    private final VoteLog log;
+    private final ConcurrentHashMap<String, Election> elections = new ConcurrentHashMap<>();
+    private final Path snapshotFile;
+    // Every slot below this is committed and covered by the latest snapshot
+    private long snapshotWatermark;
+
+    private VoteStore(SymbolTable symbols, VoteLog log, Path snapshotFile) {
+        this.symbols = symbols;
+        this.log = log;
+        this.snapshotFile = snapshotFile;
+    }
+
+    static VoteStore inMemory() {
+        return new VoteStore(new SymbolTable(), new HeapVoteLog(), null);
+    }
+
+    /** Opens (or creates) a durable store in dataDir, restoring its snapshot and replaying the ledger tail. */
+    static VoteStore open(Path dataDir) throws IOException {
+        Files.createDirectories(dataDir);
+        Path snapshotFile = dataDir.resolve(SNAPSHOT_FILE);
+        VoteSnapshot snapshot = VoteSnapshot.open(snapshotFile);
+        SymbolTable symbols = SymbolTable.open(dataDir.resolve(SYMBOLS_FILE));
+        VoteLog log;
+        try {
+            // Slots below the watermark were synced before the snapshot was taken, so need no recovery scan
+            log = MappedVoteLog.open(dataDir.resolve(LEDGER_FILE), snapshot != null ? snapshot.watermark() : 0,
+                symbols.size());
+        } catch (IOException | RuntimeException e) {
+            symbols.close();
+            throw e;
+        }
+        VoteStore store = new VoteStore(symbols, log, snapshotFile);
+        try {
+            if (snapshot != null) {
+                snapshot.restore(store);
+                store.snapshotWatermark = snapshot.watermark();
+            }
+            store.replay(store.snapshotWatermark);
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void replay(long from) {
+        for (long slot = from, end = log.size(); slot < end; slot++) {
+            Vote vote = log.read(slot);
+            if (vote != null) {
+                election(symbols.name(vote.election())).restore(vote.sub(), vote.candidate(), slot);
+            }
+        }
+    }
+
+    /** Ledger slot covered by the latest snapshot; 0 when there is none. */
+    long snapshotWatermark() {
+        return snapshotWatermark;
+    }
+
+    /**
+     * Writes a snapshot of the voter index and tallies covering every vote committed
+     * so far, replacing the previous one. Runs concurrently with voting; must not be
+     * called from more than one thread at a time.
+     *
+     * @return the number of ledger slots the new snapshot covers
+     */
+    long snapshot() throws IOException {
+        if (snapshotFile == null) {
+            throw new IllegalStateException("in-memory vote store has no snapshot file");
+        }
+        long watermark = snapshotWatermark;
+        // Slots a crash left empty will never commit, so they must not hold the watermark back
+        while (watermark < log.size() && (log.read(watermark) != null || !log.inFlight(watermark))) {
+            watermark++;
+        }
+        // A snapshot must never cover slots that a crash could hand out again
+        sync(snapshotWatermark, watermark);
+        VoteSnapshot.write(snapshotFile, watermark, this);
+        snapshotWatermark = watermark;
+        return watermark;
+    }
+
+    /** Returns the election, creating it on first use. */
+    Election election(String electionId) {
+        return elections.computeIfAbsent(electionId, id -> new Election(id, symbols.intern(id)));
+    }
+
+    /** Returns the election, or null if nobody has voted in it yet. */
+    Election find(String electionId) {
+        return elections.get(electionId);
+    }
+
+    Collection<Election> elections() {
+        return elections.values();
+    }
+
+    int intern(String name) {
+        return symbols.intern(name);
+    }
+
+    String symbol(int id) {
+        return symbols.name(id);
+    }
+
+    /** Symbols below this id are journaled and survive a restart. */
+    int durableSymbols() {
+        return symbols.journaled();
+    }
+
+    VoteLog log() {
+        return log;
+    }
+
+    /**
+     * Builds the vote a claimed voter is about to cast, with a fresh id and timestamp,
+     * without recording it yet (its slot is -1).
+     */
+    Vote prepare(Election election, int sub, String candidateId) {
+        int candidate = symbols.intern(candidateId);
+        // Random (version 4) UUID bits; vote ids only need to be unique, not unguessable
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long idHi = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long idLo = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new Vote(-1, idHi, idLo, System.currentTimeMillis(), election.symbol(), candidate, sub);
+    }
+
+    /** Appends a prepared vote to the log and tallies it; returns it with its slot. */
+    Vote record(Election election, Vote vote) {
+        long slot = log.reserve();
+        // Set the ballot before the slot commits: a committed slot then implies a visible ballot
+        election.cast(vote.sub(), vote.candidate(), slot);
+        log.write(slot, vote.idHi(), vote.idLo(), vote.votedAt(),
+            vote.election(), vote.candidate(), vote.sub());
+        election.count(vote.candidate());
+        return new Vote(slot, vote.idHi(), vote.idLo(), vote.votedAt(),
+            vote.election(), vote.candidate(), vote.sub());
+    }
+
+    /**
+     * Records a vote that is already held elsewhere, keeping its id and timestamp,
+     * unless the voter has a ballot in that election; returns it with its slot, or
+     * null if it was not recorded.
+     */
+    Vote adopt(String electionId, String sub, String candidateId, long votedAt, long idHi, long idLo) {
+        Election election = election(electionId);
+        int voter = symbols.intern(sub);
+        if (!election.claim(voter)) {
+            return null;
+        }
+        return record(election, new Vote(-1, idHi, idLo, votedAt, election.symbol(), symbols.intern(candidateId), voter));
+    }
+
+    JsonObject toJson(Vote vote) {
+        return new JsonObject()
+            .put("id", new UUID(vote.idHi(), vote.idLo()).toString())
+            .put("electionId", symbols.name(vote.election()))
+            .put("candidateId", symbols.name(vote.candidate()))
+            .put("sub", symbols.name(vote.sub()))
+            .put("votedAt", Instant.ofEpochMilli(vote.votedAt()).toString());
+    }
+
+    /**
+     * Makes the votes in slots [from, to) durable, together with every symbol they
+     * reference: the symbol journal is synced first, and a vote only uses symbols
+     * interned before it was written.
+     */
+    void sync(long from, long to) throws IOException {
+        symbols.sync();
+        log.sync(from, to);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            log.close();
+        } finally {
+            symbols.close();
+        }
+    }
+
+    /**
+     * A voter's choice and the ledger slot holding it. Ballots loaded from a snapshot
+     * have slot -1, below any watermark.
+     */
+    record Ballot(int candidate, long slot) {
+        /** A voter that has claimed their vote but not cast it yet; its slot is above any watermark. */
+        static final Ballot UNCAST = new Ballot(-1, Long.MAX_VALUE);
+    }
+
+    static final class Election {
+        private final String id;
+        private final int symbol;
+        // voter sub -> ballot, UNCAST while the vote is being recorded
+        private final ConcurrentHashMap<Integer, Ballot> ballots = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Integer, LongAdder> tallies = new ConcurrentHashMap<>();
+
+        private Election(String id, int symbol) {
+            this.id = id;
+            this.symbol = symbol;
+        }
+
+        String id() {
+            return id;
+        }
+
+        int symbol() {
+            return symbol;
+        }
+
+        /** Atomically claims the voter's single ballot; false if they already voted. */
+        boolean claim(int sub) {
+            return ballots.putIfAbsent(sub, Ballot.UNCAST) == null;
+        }
+
+        /** Gives back a claim whose vote could not be recorded, so the voter may retry. */
+        void release(int sub) {
+            ballots.remove(sub, Ballot.UNCAST);
+        }
+
+        private void cast(int sub, int candidate, long slot) {
+            ballots.put(sub, new Ballot(candidate, slot));
+        }
+
+        private void count(int candidate) {
+            tallies.computeIfAbsent(candidate, c -> new LongAdder()).increment();
+        }
+
+        /** Applies a vote read back from the ledger, unless it is already applied. */
+        void restore(int sub, int candidate, long slot) {
+            Ballot previous = ballots.get(sub);
+            if (previous == null || previous.equals(Ballot.UNCAST)) {
+                ballots.put(sub, new Ballot(candidate, slot));
+                count(candidate);
+            }
+        }
+
+        /** Loads a snapshot entry into an election nobody is voting in yet. */
+        void load(int sub, int candidate) {
+            ballots.put(sub, new Ballot(candidate, -1));
+        }
+
+        void loadTally(int candidate, long count) {
+            tallies.computeIfAbsent(candidate, c -> new LongAdder()).add(count);
+        }
+
+        /** Live ballots, sub -> ballot or {@link Ballot#UNCAST}. */
+        Map<Integer, Ballot> ballots() {
+            return ballots;
+        }
+
+        /** Live per-candidate counters keyed by candidate symbol; values may advance while read. */
+        Map<Integer, LongAdder> tallies() {
+            return tallies;
+        }
+    }
+}
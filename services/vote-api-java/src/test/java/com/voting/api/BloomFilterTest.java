@@ -0,0 +1,70 @@
+package com.voting.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final long SEED = 1;
+
+    @Test
+    void everyAddedValueIsFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(SEED, "jti-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(SEED, "jti-" + i), "jti-" + i);
+        }
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(filter.mightContain(SEED, "jti-" + i));
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(SEED, "in-" + i);
+        }
+        int hits = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(SEED, "out-" + i)) {
+                hits++;
+            }
+        }
+        // 1% target; allow for the rounding of bits and hashes
+        assertTrue(hits < 2_000, "false positives: " + hits);
+    }
+
+    @Test
+    void seedsKeepValuesApart() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(SEED, "value-" + i);
+        }
+        int hits = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.mightContain(SEED + 1, "value-" + i)) {
+                hits++;
+            }
+        }
+        assertTrue(hits < 20, "cross-seed hits: " + hits);
+    }
+
+    @Test
+    void sizedFromExpectedEntriesAndRate() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        // About 9.6 bits and 7 hashes per entry for 1%, rounded up to whole words
+        assertEquals(9600, filter.bits());
+        assertEquals(7, filter.hashes());
+    }
+}
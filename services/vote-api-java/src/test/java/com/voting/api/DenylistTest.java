@@ -0,0 +1,194 @@
+package com.voting.api;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DenylistTest {
+
+    private static final long NOW = System.currentTimeMillis() / 1000;
+    private static final long RETENTION = 3600;
+
+    private Vertx vertx;
+    private Denylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+        denylist = denylist(16);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        denylist.close();
+        await(vertx.close());
+    }
+
+    private Denylist denylist(long expectedEntries) {
+        return new Denylist(vertx, WebClient.create(vertx), "", 0, 0, RETENTION, expectedEntries);
+    }
+
+    @Test
+    void revokedJtiIsDeniedAndOthersPass() throws Exception {
+        denylist.revokeToken("j1", NOW + 600);
+
+        assertTrue(denylist.isRevoked(claims("alice", "j1", NOW)));
+        assertFalse(denylist.isRevoked(claims("alice", "j2", NOW)));
+        assertFalse(denylist.isRevoked(claims("alice", null, NOW)));
+    }
+
+    @Test
+    void revokedSubjectDeniesTokensIssuedUpToTheRevocationSecond() throws Exception {
+        denylist.revokeSubject("alice", NOW);
+
+        assertTrue(denylist.isRevoked(claims("alice", "j1", NOW - 60)));
+        // iat is whole seconds, so a token from the revocation second may predate it
+        assertTrue(denylist.isRevoked(claims("alice", "j2", NOW)));
+        assertTrue(denylist.isRevoked(claims("alice", "j3", TokenClaims.ABSENT)));
+        assertFalse(denylist.isRevoked(claims("alice", "j4", NOW + 1)));
+        assertFalse(denylist.isRevoked(claims("bob", "j5", NOW - 60)));
+    }
+
+    @Test
+    void laterRevocationOfASubjectWins() throws Exception {
+        denylist.revokeSubject("alice", NOW);
+        denylist.revokeSubject("alice", NOW - 120);
+
+        assertTrue(denylist.isRevoked(claims("alice", "j1", NOW)));
+    }
+
+    @Test
+    void noFalseNegativesAfterOutgrowingTheFilter() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            denylist.revokeToken("jti-" + i, NOW + 600);
+            denylist.revokeSubject("sub-" + i, NOW);
+        }
+
+        assertTrue(denylist.metrics().getLong("filterBits") > new BloomFilter(16, 0.01).bits());
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(denylist.isRevoked(claims("someone", "jti-" + i, NOW)), "jti-" + i);
+            assertTrue(denylist.isRevoked(claims("sub-" + i, "fresh", NOW)), "sub-" + i);
+        }
+    }
+
+    @Test
+    void purgeDropsExpiredEntriesAndKeepsTheRest() throws Exception {
+        denylist.revokeToken("expired", NOW - 3600);
+        denylist.revokeToken("live", NOW + 600);
+        denylist.revokeSubject("old", NOW - 2 * RETENTION);
+        denylist.revokeSubject("recent", NOW - 60);
+
+        denylist.purge(NOW);
+
+        assertEquals(1, denylist.metrics().getInteger("tokens"));
+        assertEquals(1, denylist.metrics().getInteger("subjects"));
+        assertFalse(denylist.isRevoked(claims("someone", "expired", NOW)));
+        assertTrue(denylist.isRevoked(claims("someone", "live", NOW)));
+        assertFalse(denylist.isRevoked(claims("old", "j1", NOW - 3 * RETENTION)));
+        assertTrue(denylist.isRevoked(claims("recent", "j2", NOW - 120)));
+    }
+
+    @Test
+    void applyAddsEveryEntryOfADocument() throws Exception {
+        int applied = denylist.apply(new JsonObject()
+            .put("tokens", new JsonArray()
+                .add(new JsonObject().put("jti", "j1").put("exp", NOW + 600))
+                .add(new JsonObject().put("jti", "j2")))
+            .put("subjects", new JsonArray()
+                .add(new JsonObject().put("sub", "alice").put("revokedAt", NOW))));
+
+        assertEquals(3, applied);
+        assertTrue(denylist.isRevoked(claims("bob", "j1", NOW)));
+        assertTrue(denylist.isRevoked(claims("bob", "j2", NOW)));
+        assertTrue(denylist.isRevoked(claims("alice", "j3", NOW)));
+    }
+
+    @Test
+    void malformedDocumentsChangeNothing() {
+        JsonObject valid = new JsonObject().put("jti", "j1").put("exp", NOW + 600);
+        JsonObject[] documents = {
+            new JsonObject().put("tokens", "j1"),
+            new JsonObject().put("tokens", new JsonArray().add(valid).add(new JsonObject().put("exp", NOW))),
+            new JsonObject().put("tokens", new JsonArray().add(valid).add(new JsonObject().put("jti", "j2").put("exp", "soon"))),
+            new JsonObject().put("tokens", new JsonArray().add(valid).add("j2")),
+            new JsonObject().put("tokens", new JsonArray().add(valid))
+                .put("subjects", new JsonArray().add(new JsonObject().put("sub", "alice").put("revokedAt", true))),
+        };
+
+        for (JsonObject document : documents) {
+            assertThrows(IllegalArgumentException.class, () -> denylist.apply(document), document.encode());
+        }
+        assertEquals(0, denylist.metrics().getInteger("tokens"));
+        assertEquals(0, denylist.metrics().getInteger("subjects"));
+    }
+
+    @Test
+    void stalledSyncIsNotOverlappedAndTimesOut() throws Exception {
+        AtomicBoolean stall = new AtomicBoolean(true);
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = await(vertx.createHttpServer()
+            .requestHandler(request -> {
+                requests.incrementAndGet();
+                if (!stall.get()) {
+                    request.response().putHeader("content-type", "application/json")
+                        .end(new JsonObject().put("tokens", new JsonArray()
+                            .add(new JsonObject().put("jti", "j1"))).encode());
+                }
+            })
+            .listen(0));
+        denylist.close();
+        denylist = new Denylist(vertx, WebClient.create(vertx), "http://localhost:" + server.actualPort() + "/denylist",
+            50, 1000, RETENTION, 16);
+
+        denylist.start();
+        waitFor(() -> requests.get() > 0);
+        // A few intervals pass while the first request hangs
+        Thread.sleep(120);
+        assertEquals(1, requests.get());
+
+        stall.set(false);
+        waitFor(() -> denylist.metrics().getLong("syncs") > 0);
+        assertEquals(1, denylist.metrics().getLong("syncFailures"));
+        assertTrue(denylist.isRevoked(claims("alice", "j1", NOW)));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    private static TokenClaims claims(String sub, String jti, long issuedAt) throws Exception {
+        JsonObject payload = new JsonObject().put("sub", sub).put("exp", NOW + 600);
+        if (jti != null) {
+            payload.put("jti", jti);
+        }
+        if (issuedAt != TokenClaims.ABSENT) {
+            payload.put("iat", issuedAt);
+        }
+        return TokenClaims.parse(payload.encode().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,87 @@
+package com.voting.api;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwksCacheTest {
+
+    private Vertx vertx;
+    private HttpServer server;
+    private final AtomicBoolean stall = new AtomicBoolean();
+    private final AtomicInteger requests = new AtomicInteger();
+    private String keys;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        keys = new JWKSet(LoadTestTokens.generateKey().toPublicJWK()).toString();
+        server = await(vertx.createHttpServer()
+            .requestHandler(request -> {
+                requests.incrementAndGet();
+                if (!stall.get()) {
+                    request.response().putHeader("content-type", "application/json").end(keys);
+                }
+            })
+            .listen(0));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        await(vertx.close());
+    }
+
+    private JwksCache cache() {
+        return new JwksCache(vertx, WebClient.create(vertx),
+            "http://localhost:" + server.actualPort() + "/jwks.json", 0, 0, 200);
+    }
+
+    @Test
+    void stalledFetchTimesOutAndTheNextRefreshFetchesAgain() throws Exception {
+        JwksCache cache = cache();
+        stall.set(true);
+        assertThrows(ExecutionException.class, () -> await(cache.refresh()));
+
+        stall.set(false);
+        await(cache.refresh());
+        assertEquals(2, requests.get());
+        assertTrue(cache.ready());
+    }
+
+    @Test
+    void ensureKeyWaitingOnAStalledFetchIsReleasedByTheTimeout() throws Exception {
+        JwksCache cache = cache();
+        stall.set(true);
+        Future<Void> refresh = cache.refresh();
+        // Joins the running fetch and completes, key still unknown, once it times out
+        await(cache.ensureKey(LoadTestTokens.KEY_ID));
+        assertTrue(refresh.failed());
+        assertFalse(cache.hasKey(LoadTestTokens.KEY_ID));
+    }
+
+    @Test
+    void keyFromAFinishedRefreshIsVisibleToEnsureKey() throws Exception {
+        JwksCache cache = cache();
+        await(cache.ensureKey(LoadTestTokens.KEY_ID));
+        assertTrue(cache.hasKey(LoadTestTokens.KEY_ID));
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+}
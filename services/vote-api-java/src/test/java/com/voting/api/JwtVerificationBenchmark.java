@@ -0,0 +1,137 @@
+package com.voting.api;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One uncached token through the DefaultJWTProcessor path TokenVerifier used to take,
+ * against the VerifierRegistry and TokenClaims path it takes now. The claims
+ * benchmarks leave out the signature check, which costs the same on both paths
+ * and hides the difference in allocation. Run with -prof gc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtVerificationBenchmark {
+
+    private static final String ISSUER = "http://localhost:4444/";
+
+    @Param({"RS256", "ES256"})
+    public String alg;
+
+    private String token;
+    private byte[] payload;
+    private String payloadJson;
+    private DefaultJWTProcessor<SecurityContext> processor;
+    private DefaultJWTClaimsVerifier<SecurityContext> claimsVerifier;
+    private VerifierRegistry registry;
+
+    @Setup
+    public void setUp() throws Exception {
+        JWK key;
+        JWSSigner signer;
+        if (alg.equals("RS256")) {
+            var rsa = new RSAKeyGenerator(2048).keyID("bench").algorithm(JWSAlgorithm.RS256).generate();
+            key = rsa;
+            signer = new RSASSASigner(rsa);
+        } else {
+            var ec = new ECKeyGenerator(Curve.P_256).keyID("bench").algorithm(JWSAlgorithm.ES256).generate();
+            key = ec;
+            signer = new ECDSASigner(ec);
+        }
+        long now = System.currentTimeMillis();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .subject("a5e9b6f2-4c1d-4f7e-9a3b-2d8c7e6f5a41")
+            .issuer(ISSUER)
+            .audience(List.of("vote-api"))
+            .jwtID("8f14e45f-ceea-467f-a8a5-0b1c2d3e4f50")
+            .issueTime(new Date(now))
+            .expirationTime(new Date(now + TimeUnit.HOURS.toMillis(1)))
+            .claim("scope", "openid vote:cast")
+            .claim("client_id", "vote-web")
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.parse(alg)).keyID("bench").build(), claims);
+        jwt.sign(signer);
+        token = jwt.serialize();
+        payload = jwt.getPayload().toBytes();
+        payloadJson = jwt.getPayload().toString();
+
+        JWKSet keys = new JWKSet(key.toPublicJWK());
+        claimsVerifier = new DefaultJWTClaimsVerifier<>(
+            new JWTClaimsSet.Builder().issuer(ISSUER).build(), Set.of("sub", "exp", "iat"));
+        processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.parse(alg), new ImmutableJWKSet<>(keys)));
+        processor.setJWTClaimsSetVerifier(claimsVerifier);
+        registry = VerifierRegistry.of(keys);
+    }
+
+    @Benchmark
+    public void nimbusProcessor(Blackhole bh) throws Exception {
+        JWTClaimsSet claims = processor.process(SignedJWT.parse(token), null);
+        bh.consume(claims.getSubject());
+        bh.consume(claims.getStringClaim("scope"));
+    }
+
+    @Benchmark
+    public void verifierRegistry(Blackhole bh) throws Exception {
+        SignedJWT jwt = SignedJWT.parse(token);
+        if (!jwt.verify(registry.verifier(jwt.getHeader()))) {
+            throw new IllegalStateException("signature rejected");
+        }
+        TokenClaims claims = TokenClaims.parse(jwt.getPayload().toBytes());
+        claims.verify(ISSUER, System.currentTimeMillis(), 60);
+        bh.consume(claims.subject());
+        bh.consume(claims.hasScope("vote:cast"));
+    }
+
+    @Benchmark
+    public void nimbusClaims(Blackhole bh) throws Exception {
+        JWTClaimsSet claims = JWTClaimsSet.parse(payloadJson);
+        claimsVerifier.verify(claims, null);
+        bh.consume(claims.getSubject());
+        bh.consume(claims.getStringClaim("scope"));
+    }
+
+    @Benchmark
+    public void tokenClaims(Blackhole bh) throws Exception {
+        TokenClaims claims = TokenClaims.parse(payload);
+        claims.verify(ISSUER, System.currentTimeMillis(), 60);
+        bh.consume(claims.subject());
+        bh.consume(claims.hasScope("vote:cast"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.voting.api;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.vertx.core.json.JsonArray;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Signed access tokens for load tests, so POST /vote is driven through real token
+ * verification instead of being turned away with 401.
+ *
+ * Writes jwks.json, the public half of a fresh RS256 key (Hydra's default
+ * algorithm) for vote-api-java's JWKS_FILE, and tokens.json, an array of tokens
+ * with distinct subjects and the vote:cast scope for load-test-vote-api.js to read
+ * from TOKENS_FILE.
+ *
+ * Usage: LoadTestTokens output-dir [count] [issuer] [validity-minutes]
+ */
+public final class LoadTestTokens {
+
+    static final String KEY_ID = "load-test";
+
+    private LoadTestTokens() {
+    }
+
+    static RSAKey generateKey() throws JOSEException {
+        return new RSAKeyGenerator(2048)
+            .keyID(KEY_ID)
+            .algorithm(JWSAlgorithm.RS256)
+            .keyUse(KeyUse.SIGNATURE)
+            .generate();
+    }
+
+    static List<String> mint(RSAKey key, String issuer, int count, Duration validity) throws JOSEException {
+        RSASSASigner signer = new RSASSASigner(key);
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build();
+        long now = System.currentTimeMillis();
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("load-test-voter-" + i)
+                .issuer(issuer)
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(new Date(now))
+                .expirationTime(new Date(now + validity.toMillis()))
+                .claim("scope", "openid vote:cast")
+                .build();
+            SignedJWT jwt = new SignedJWT(header, claims);
+            jwt.sign(signer);
+            tokens.add(jwt.serialize());
+        }
+        return tokens;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadTestTokens output-dir [count] [issuer] [validity-minutes]");
+            System.exit(2);
+        }
+        Path dir = Path.of(args[0]);
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        String issuer = args.length > 2 ? args[2] : "http://localhost:4444/";
+        Duration validity = Duration.ofMinutes(args.length > 3 ? Long.parseLong(args[3]) : 120);
+
+        RSAKey key = generateKey();
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("jwks.json"), new JWKSet(key.toPublicJWK()).toString());
+        Files.writeString(dir.resolve("tokens.json"), new JsonArray(mint(key, issuer, count, validity)).encode());
+        System.out.printf("Wrote %d tokens for issuer %s, valid for %d minutes, to %s%n",
+            count, issuer, validity.toMinutes(), dir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,149 @@
+package com.voting.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedVoteLogTest {
+
+    private static final int SYMBOLS = 1000;
+
+    @TempDir
+    Path dir;
+
+    private Path file() {
+        return dir.resolve(VoteStore.LEDGER_FILE);
+    }
+
+    @Test
+    void reopenKeepsCommittedRecordsAndResumesAfterThem() throws IOException {
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i, append(log, i));
+            }
+            log.sync(0, 3);
+        }
+
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            assertEquals(3, log.size());
+            for (int i = 0; i < 3; i++) {
+                Vote vote = log.read(i);
+                assertEquals(i, vote.slot());
+                assertEquals(1000 + i, vote.votedAt());
+                assertEquals(i, vote.sub());
+            }
+            assertEquals(3, append(log, 3));
+        }
+    }
+
+    @Test
+    void tornRecordInTheMiddleBecomesAHoleThatIsNotInFlight() throws IOException {
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            for (int i = 0; i < 3; i++) {
+                append(log, i);
+            }
+        }
+        // Sub written, checksum not: the record was torn by a crash
+        corrupt(1, 32);
+
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            assertEquals(3, log.size());
+            assertNotNull(log.read(0));
+            assertNull(log.read(1));
+            assertFalse(log.inFlight(1));
+            assertNotNull(log.read(2));
+
+            long reserved = log.reserve();
+            assertEquals(3, reserved);
+            assertTrue(log.inFlight(reserved));
+        }
+
+        // The torn record was cleared, so it stays a hole rather than failing its checksum again
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            assertNull(log.read(1));
+            assertEquals(3, log.size());
+        }
+    }
+
+    @Test
+    void tornOrMissingRecordsAtTheEndAreReused() throws IOException {
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            for (int i = 0; i < 4; i++) {
+                append(log, i);
+            }
+            // Reserved but never written before the crash
+            log.reserve();
+        }
+        corrupt(3, 8);
+
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            assertEquals(3, log.size());
+            assertEquals(3, append(log, 30));
+            assertEquals(30, log.read(3).sub());
+        }
+    }
+
+    @Test
+    void recoveryStartsAtTheGivenSlot() throws IOException {
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            for (int i = 0; i < 4; i++) {
+                append(log, i);
+            }
+        }
+        // Below the snapshot watermark records are trusted without a checksum scan
+        corrupt(0, 32);
+
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 2, SYMBOLS)) {
+            assertEquals(4, log.size());
+            assertFalse(log.inFlight(0));
+        }
+    }
+
+    @Test
+    void recordsReferencingSymbolsMissingFromTheJournalAreCleared() throws IOException {
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            for (int i = 0; i < 4; i++) {
+                append(log, i);
+            }
+        }
+
+        // Candidates are 100 + i: the crash lost the journal tail from symbol 102 on
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, 102)) {
+            assertEquals(2, log.size());
+            assertNotNull(log.read(1));
+            assertNull(log.read(2));
+        }
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            assertEquals(2, log.size());
+        }
+    }
+
+    @Test
+    void emptyLedgerStartsAtSlotZero() throws IOException {
+        try (MappedVoteLog log = MappedVoteLog.open(file(), 0, SYMBOLS)) {
+            assertEquals(0, log.size());
+            assertNull(log.read(0));
+        }
+    }
+
+    private static long append(MappedVoteLog log, int i) {
+        return log.append(i * 31L + 1, i * 17L + 2, 1000 + i, 7, 100 + i, i);
+    }
+
+    private void corrupt(long slot, int field) throws IOException {
+        try (FileChannel ledger = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            ledger.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), slot * MappedVoteLog.RECORD_BYTES + field);
+        }
+    }
+}
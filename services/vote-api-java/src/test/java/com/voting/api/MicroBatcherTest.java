@@ -0,0 +1,106 @@
+package com.voting.api;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatcherTest {
+
+    private Vertx vertx;
+    private final List<List<Integer>> sent = new CopyOnWriteArrayList<>();
+    private final List<Promise<Void>> outstanding = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    private MicroBatcher<Integer> batcher(long maxLatencyMs, int maxBatch, int maxInFlight, int maxPending) {
+        return new MicroBatcher<>(vertx, maxLatencyMs, maxBatch, maxInFlight, maxPending, batch -> {
+            Promise<Void> done = Promise.promise();
+            sent.add(batch);
+            outstanding.add(done);
+            return done.future();
+        });
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheTimer() {
+        MicroBatcher<Integer> batcher = batcher(60_000, 3, 1, 100);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(batcher.add(i));
+        }
+        assertEquals(List.of(List.of(0, 1, 2)), sent);
+    }
+
+    @Test
+    void backlogIsSentInBatchesOfAtMostMaxBatch() {
+        MicroBatcher<Integer> batcher = batcher(60_000, 3, 1, 100);
+        for (int i = 0; i < 10; i++) {
+            batcher.add(i);
+        }
+        // One batch in flight; the other seven wait for it
+        assertEquals(1, sent.size());
+
+        outstanding.get(0).complete();
+        assertEquals(List.of(3, 4, 5), sent.get(1));
+        outstanding.get(1).complete();
+        outstanding.get(2).complete();
+        assertEquals(List.of(9), sent.get(3));
+        assertEquals(4, sent.size());
+    }
+
+    @Test
+    void addsBeyondMaxPendingAreRefused() {
+        MicroBatcher<Integer> batcher = batcher(60_000, 2, 1, 3);
+        batcher.add(0);
+        batcher.add(1);
+        // The first batch is in flight, so it no longer counts against the bound
+        for (int i = 2; i < 5; i++) {
+            assertTrue(batcher.add(i));
+        }
+        assertFalse(batcher.add(5));
+
+        outstanding.get(0).fail("database down");
+        assertTrue(batcher.add(5));
+    }
+
+    @Test
+    void zeroLatencySendsAtOnceAndCoalescesOnlyWhileInFlight() {
+        MicroBatcher<Integer> batcher = batcher(0, 10, 1, 100);
+        batcher.add(0);
+        batcher.add(1);
+        batcher.add(2);
+        assertEquals(List.of(List.of(0)), sent);
+
+        outstanding.get(0).complete();
+        assertEquals(List.of(1, 2), sent.get(1));
+    }
+
+    @Test
+    void partialBatchIsSentAfterMaxLatency() throws Exception {
+        MicroBatcher<Integer> batcher = batcher(10, 100, 1, 100);
+        batcher.add(7);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of(List.of(7)), sent);
+    }
+}
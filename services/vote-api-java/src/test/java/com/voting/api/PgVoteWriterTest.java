@@ -0,0 +1,118 @@
+package com.voting.api;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgBuilder;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the PostgreSQL in VOTE_PG_URI and is skipped without one. Every test
+ * votes in elections under a fresh prefix and deletes them afterwards, so existing
+ * rows are left alone.
+ */
+@EnabledIfEnvironmentVariable(named = "VOTE_PG_URI", matches = ".+")
+class PgVoteWriterTest {
+
+    private static final String URI = System.getenv("VOTE_PG_URI");
+
+    private Vertx vertx;
+    private PgVoteWriter writer;
+    private Pool pool;
+    private String prefix;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        prefix = "pg-test-" + UUID.randomUUID() + "-";
+        // A batch of two, so two concurrent inserts go to the database as one statement
+        writer = await(PgVoteWriter.create(vertx, URI, 2, 50, 2, 100));
+        pool = PgBuilder.pool().connectingTo(PgConnectOptions.fromUri(URI)).using(vertx).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        await(pool.preparedQuery("DELETE FROM votes_ledger WHERE starts_with(election_id, $1)")
+            .execute(Tuple.of(prefix)));
+        await(writer.close());
+        await(vertx.close());
+    }
+
+    @Test
+    void createBootstrapsTheTable() throws Exception {
+        long tables = await(pool.query("SELECT count(*) FROM information_schema.tables WHERE table_name = 'votes_ledger'")
+            .execute()).iterator().next().getLong(0);
+        assertEquals(1, tables);
+        // Creating it again is a no-op
+        await(PgVoteWriter.create(vertx, URI, 1, 50, 2, 100).compose(PgVoteWriter::close));
+    }
+
+    @Test
+    void secondVoteForTheSameElectionIsNotInserted() throws Exception {
+        VoteStore store = VoteStore.inMemory();
+        assertTrue(await(insert(store, "e1", "alice", "c1")));
+        assertFalse(await(insert(store, "e1", "alice", "c2")));
+        assertTrue(await(insert(store, "e2", "alice", "c2")));
+        assertEquals("c1", candidate("e1", "alice"));
+    }
+
+    @Test
+    void sameVoterTwiceInOneBatchInsertsOnlyTheFirst() throws Exception {
+        VoteStore store = VoteStore.inMemory();
+        Future<Boolean> first = insert(store, "e1", "bob", "c1");
+        Future<Boolean> second = insert(store, "e1", "bob", "c2");
+        assertEquals(List.of(true, false), List.of(await(first), await(second)));
+        assertEquals("c1", candidate("e1", "bob"));
+    }
+
+    @Test
+    void restoreAddsVotesTheLocalStoreIsMissing() throws Exception {
+        VoteStore writerStore = VoteStore.inMemory();
+        Vote carol = writerStore.prepare(writerStore.election(prefix + "e1"), writerStore.intern("carol"), "c2");
+        assertTrue(await(writer.insert(prefix + "e1", "c2", "carol", carol)));
+        assertTrue(await(insert(writerStore, "e1", "dave", "c1")));
+
+        // dave's vote reached the ledger, carol's was lost with a crash
+        VoteStore store = VoteStore.inMemory();
+        assertNotNull(store.adopt(prefix + "e1", "dave", "c1", 1, 1, 1));
+        await(writer.restoreInto(store));
+
+        VoteStore.Election election = store.find(prefix + "e1");
+        assertEquals(2, election.ballots().size());
+        assertEquals(1, election.tallies().get(store.intern("c2")).sum());
+        assertEquals(1, election.tallies().get(store.intern("c1")).sum());
+        Vote restored = store.log().read(election.ballots().get(store.intern("carol")).slot());
+        assertEquals(carol.idHi(), restored.idHi());
+        assertEquals(carol.votedAt(), restored.votedAt());
+        assertNull(store.adopt(prefix + "e1", "carol", "c1", 1, 2, 2));
+    }
+
+    private Future<Boolean> insert(VoteStore store, String election, String sub, String candidate) {
+        Vote vote = store.prepare(store.election(prefix + election), store.intern(sub), candidate);
+        return writer.insert(prefix + election, candidate, sub, vote);
+    }
+
+    private String candidate(String election, String sub) throws Exception {
+        return await(pool.preparedQuery("SELECT candidate_id FROM votes_ledger WHERE election_id = $1 AND voter_sub = $2")
+            .execute(Tuple.of(prefix + election, sub))).iterator().next().getString(0);
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+    }
+}
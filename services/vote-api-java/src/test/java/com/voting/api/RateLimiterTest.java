@@ -0,0 +1,117 @@
+package com.voting.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long T0 = System.nanoTime();
+
+    @Test
+    void burstIsAllowedAndTheNextRequestWaitsOneInterval() {
+        RateLimiter limiter = new RateLimiter(10, 5, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.acquire("alice", T0), "request " + i);
+        }
+        assertEquals(SECOND / 10, limiter.acquire("alice", T0));
+        // A refused request takes nothing from the bucket
+        assertEquals(SECOND / 10 - 1000, limiter.acquire("alice", T0 + 1000));
+        assertEquals(5, limiter.metrics().getLong("allowed"));
+        assertEquals(2, limiter.metrics().getLong("limited"));
+    }
+
+    @Test
+    void tokensRefillAtTheRateUpToTheBurst() {
+        RateLimiter limiter = new RateLimiter(10, 5, 100);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("alice", T0);
+        }
+
+        long later = T0 + SECOND / 10;
+        assertEquals(0, limiter.acquire("alice", later));
+        assertTrue(limiter.acquire("alice", later) > 0);
+
+        // Idle long enough to refill many times over, but the burst caps it
+        long muchLater = T0 + 60 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.acquire("alice", muchLater), "request " + i);
+        }
+        assertTrue(limiter.acquire("alice", muchLater) > 0);
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100);
+
+        assertEquals(0, limiter.acquire("alice", T0));
+        assertTrue(limiter.acquire("alice", T0) > 0);
+        assertEquals(0, limiter.acquire("bob", T0));
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertEquals(1, RateLimiter.retryAfterSeconds(1));
+        assertEquals(1, RateLimiter.retryAfterSeconds(SECOND / 10));
+        assertEquals(1, RateLimiter.retryAfterSeconds(SECOND));
+        assertEquals(2, RateLimiter.retryAfterSeconds(SECOND + 1));
+        assertEquals(3, RateLimiter.retryAfterSeconds(5 * SECOND / 2));
+    }
+
+    @Test
+    void retryAfterForALimitedRequestCoversTheWait() {
+        RateLimiter limiter = new RateLimiter(0.5, 1, 100);
+        limiter.acquire("alice", T0);
+
+        long wait = limiter.acquire("alice", T0);
+        assertEquals(2 * SECOND, wait);
+        assertEquals(2, RateLimiter.retryAfterSeconds(wait));
+        assertEquals(0, limiter.acquire("alice", T0 + RateLimiter.retryAfterSeconds(wait) * SECOND));
+    }
+
+    @Test
+    void idleBucketsAreEvictedBeforeBusyOnes() {
+        RateLimiter limiter = new RateLimiter(1, 2, 10);
+        for (int i = 0; i < 9; i++) {
+            limiter.acquire("idle-" + i, T0);
+        }
+        long now = T0 + 2 * SECOND;
+        limiter.acquire("busy", now);
+        limiter.acquire("busy", now);
+
+        // The eleventh key takes the map past the limit; the sweep leaves 9
+        limiter.acquire("new", now);
+
+        assertEquals(9, limiter.metrics().getInteger("buckets"));
+        assertEquals(2, limiter.metrics().getLong("evictions"));
+        assertTrue(limiter.acquire("busy", now) > 0, "busy bucket was evicted");
+    }
+
+    @Test
+    void liveBucketsAreEvictedWhenNoneAreIdle() {
+        RateLimiter limiter = new RateLimiter(1, 1, 10);
+        for (int i = 0; i < 11; i++) {
+            limiter.acquire("key-" + i, T0);
+        }
+
+        assertEquals(9, limiter.metrics().getInteger("buckets"));
+        assertEquals(2, limiter.metrics().getLong("evictions"));
+    }
+
+    @Test
+    void nonPositiveRateDisablesTheLimiter() {
+        RateLimiter limiter = new RateLimiter(0, 1, 10);
+
+        assertFalse(limiter.enabled());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.acquire("alice", T0));
+        }
+        assertEquals(0, limiter.metrics().getInteger("buckets"));
+    }
+}
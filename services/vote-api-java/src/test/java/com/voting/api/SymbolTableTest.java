@@ -0,0 +1,146 @@
+package com.voting.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SymbolTableTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file() {
+        return dir.resolve(VoteStore.SYMBOLS_FILE);
+    }
+
+    @Test
+    void idsAreDenseAndSurviveAReopen() throws IOException {
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            assertEquals(0, symbols.intern("e1"));
+            assertEquals(1, symbols.intern("alice"));
+            assertEquals(0, symbols.intern("e1"));
+            assertEquals(2, symbols.intern("ünïcødé"));
+            assertEquals(-1, symbols.find("bob"));
+            symbols.sync();
+        }
+
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            assertEquals(3, symbols.size());
+            assertEquals(1, symbols.find("alice"));
+            assertEquals("ünïcødé", symbols.name(2));
+            assertEquals(3, symbols.intern("bob"));
+        }
+    }
+
+    @Test
+    void symbolsReachTheJournalOnlyOnSync() throws IOException {
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            symbols.intern("e1");
+            symbols.intern("alice");
+            assertEquals(0, Files.size(file()));
+            assertEquals(0, symbols.journaled());
+
+            symbols.sync();
+            assertEquals(2, symbols.journaled());
+            long size = Files.size(file());
+
+            // Nothing new: the next sync appends nothing
+            symbols.intern("alice");
+            symbols.sync();
+            assertEquals(size, Files.size(file()));
+        }
+    }
+
+    @Test
+    void tornRecordAtTheEndIsDropped() throws IOException {
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            symbols.intern("e1");
+            symbols.intern("alice");
+            symbols.sync();
+        }
+        long intact = Files.size(file());
+        // A length prefix promising more bytes than the crash let through
+        try (FileChannel journal = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            journal.write(ByteBuffer.allocate(6).putInt(40).put((byte) 'b').put((byte) 'o').flip(), intact);
+        }
+
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            assertEquals(2, symbols.size());
+            assertEquals(intact, Files.size(file()));
+            assertEquals(2, symbols.intern("bob"));
+            symbols.sync();
+        }
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            assertEquals(2, symbols.find("bob"));
+            assertNull(symbols.name(3));
+        }
+    }
+
+    @Test
+    void concurrentInternsAgreeOnIdsAndJournalInIdOrder() throws Exception {
+        int threads = 4;
+        int names = 5000;
+        List<int[]> seen = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            for (int t = 0; t < threads; t++) {
+                int[] ids = new int[names];
+                seen.add(ids);
+                int offset = t;
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < names; i++) {
+                            // Each thread walks the names from a different point
+                            int n = (i + offset * names / threads) % names;
+                            ids[n] = symbols.intern("voter-" + n);
+                            if (i % 1000 == 0) {
+                                symbols.sync();
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            assertEquals(names, symbols.size());
+            Set<Integer> distinct = new HashSet<>();
+            for (int n = 0; n < names; n++) {
+                for (int[] ids : seen) {
+                    assertEquals(seen.get(0)[n], ids[n]);
+                }
+                distinct.add(seen.get(0)[n]);
+                assertEquals("voter-" + n, symbols.name(seen.get(0)[n]));
+            }
+            assertEquals(names, distinct.size());
+        }
+
+        try (SymbolTable symbols = SymbolTable.open(file())) {
+            for (int n = 0; n < names; n++) {
+                assertEquals(seen.get(0)[n], symbols.find("voter-" + n));
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.voting.api;
+
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks TokenClaims against what the Nimbus path it replaced made of the same
+ * payload: JWTClaimsSet.parse, the scope/scp lookup, and DefaultJWTClaimsVerifier.
+ */
+class TokenClaimsTest {
+
+    private static final String ISSUER = "http://localhost:4444/";
+    private static final long NOW = System.currentTimeMillis() / 1000;
+
+    private static final DefaultJWTClaimsVerifier<SecurityContext> NIMBUS_VERIFIER = new DefaultJWTClaimsVerifier<>(
+        new JWTClaimsSet.Builder().issuer(ISSUER).build(), Set.of("sub", "exp", "iat"));
+
+    static Stream<String> payloads() {
+        return Stream.of(
+            // Plain token
+            claims("\"sub\":\"alice\",\"jti\":\"j1\",\"scope\":\"openid vote:cast\""),
+            // Escaped keys and values
+            "{\"s\\u0075b\":\"al\\\"ice\\u00e9\",\"\\u0069ss\":\"" + ISSUER + "\",\"ex\\u0070\":" + (NOW + 600)
+                + ",\"iat\":" + NOW + ",\"sc\\u006fpe\":\"vote:cast\"}",
+            claims("\"sub\":\"a\\/b\\\\c\\n\",\"jti\":\"\\ud83d\\uddf3\""),
+            // scp arrays, and scope taking precedence over scp
+            claims("\"sub\":\"alice\",\"scp\":[\"openid\",\"vote:cast\"]"),
+            claims("\"sub\":\"alice\",\"scp\":[]"),
+            claims("\"sub\":\"alice\",\"scp\":[ \"vote:cast\" ]"),
+            claims("\"sub\":\"alice\",\"scope\":\"openid\",\"scp\":[\"vote:cast\"]"),
+            claims("\"sub\":\"alice\",\"scope\":\"openid  vote:cast \""),
+            claims("\"sub\":\"alice\",\"scope\":\"vote\""),
+            // Fractional and exponent dates
+            payload("\"sub\":\"alice\"", (NOW + 600) + ".75", NOW + ".5", null),
+            payload("\"sub\":\"alice\"", (NOW + 600) + "e0", NOW + "E+0", (NOW - 10) + ".0e0"),
+            payload("\"sub\":\"alice\"", String.valueOf((NOW + 600) * 10) + "e-1", String.valueOf(NOW), null),
+            // Missing required claims
+            "{\"iss\":\"" + ISSUER + "\",\"exp\":" + (NOW + 600) + ",\"iat\":" + NOW + "}",
+            "{\"sub\":\"alice\",\"iss\":\"" + ISSUER + "\",\"iat\":" + NOW + "}",
+            "{\"sub\":\"alice\",\"iss\":\"" + ISSUER + "\",\"exp\":" + (NOW + 600) + "}",
+            "{}",
+            // Time window, with the 60 s clock skew both sides allow
+            payload("\"sub\":\"alice\"", String.valueOf(NOW - 30), String.valueOf(NOW - 600), null),
+            payload("\"sub\":\"alice\"", String.valueOf(NOW - 120), String.valueOf(NOW - 600), null),
+            payload("\"sub\":\"alice\"", String.valueOf(NOW + 600), String.valueOf(NOW), String.valueOf(NOW + 30)),
+            payload("\"sub\":\"alice\"", String.valueOf(NOW + 600), String.valueOf(NOW), String.valueOf(NOW + 120)),
+            // Issuer
+            "{\"sub\":\"alice\",\"iss\":\"http://evil/\",\"exp\":" + (NOW + 600) + ",\"iat\":" + NOW + "}",
+            "{\"sub\":\"alice\",\"exp\":" + (NOW + 600) + ",\"iat\":" + NOW + "}",
+            // Claims that are skipped
+            claims("\"aud\":[\"vote-api\",\"x\"],\"sub\":\"alice\",\"ext\":{\"a\":[1,-2.5e3,{\"b\":null}],"
+                + "\"c\":\"}]\\\"\"},\"flag\":true,\"off\":false,\"n\":0"),
+            " \n{ \"sub\" : \"alice\" ,\t\"iss\" :\"" + ISSUER + "\", \"exp\" : " + (NOW + 600)
+                + " , \"iat\":" + NOW + " }\r\n"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void readsTheSameClaimsAsNimbus(String payload) throws Exception {
+        JWTClaimsSet expected = JWTClaimsSet.parse(payload);
+        TokenClaims claims = TokenClaims.parse(payload.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(expected.getSubject(), claims.subject());
+        assertEquals(expected.getIssuer(), claims.issuer());
+        assertEquals(expected.getJWTID(), claims.jwtId());
+        assertEquals(seconds(expected.getExpirationTime()), claims.expiresAt());
+        assertEquals(seconds(expected.getIssueTime()), claims.issuedAt());
+        assertEquals(seconds(expected.getNotBeforeTime()), claims.notBefore());
+        for (String scope : List.of("vote:cast", "openid", "vote", "")) {
+            assertEquals(scopes(expected).contains(scope) && !scope.isEmpty(), claims.hasScope(scope), scope);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void acceptsAndRejectsLikeDefaultJwtClaimsVerifier(String payload) throws Exception {
+        JWTClaimsSet expected = JWTClaimsSet.parse(payload);
+        TokenClaims claims = TokenClaims.parse(payload.getBytes(StandardCharsets.UTF_8));
+
+        boolean nimbusAccepts = accepts(() -> NIMBUS_VERIFIER.verify(expected, null));
+        boolean accepts = accepts(() -> claims.verify(ISSUER, System.currentTimeMillis(), 60));
+        assertEquals(nimbusAccepts, accepts);
+    }
+
+    /**
+     * Null required claims count as missing. Nimbus failed a null exp at parse time,
+     * but let a null sub through its required-claims check, which processVote could not handle.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"sub", "exp", "iat"})
+    void rejectsNullRequiredClaims(String claim) throws Exception {
+        String payload = ("{\"sub\":\"alice\",\"iss\":\"" + ISSUER + "\",\"exp\":" + (NOW + 600) + ",\"iat\":" + NOW + "}")
+            .replaceFirst("\"" + claim + "\":[^,}]+", "\"" + claim + "\":null");
+        TokenClaims claims = TokenClaims.parse(payload.getBytes(StandardCharsets.UTF_8));
+        assertThrows(BadJWTException.class, () -> claims.verify(ISSUER, System.currentTimeMillis(), 60));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "", "{", "[]", "null", "{\"sub\":}", "{\"sub\":\"a\"", "{\"sub\":\"a\",}", "{} {}",
+        "{\"sub\":\"a\\x\"}", "{\"sub\":\"\\u12\"}", "{\"exp\":\"soon\"}", "{\"exp\":1e400x}",
+        "{\"exp\":01}", "{\"exp\":1.}", "{\"exp\":-}", "{\"x\":[}}", "{\"x\":--e+}", "{\"x\":\"\\q\"}"
+    })
+    void rejectsMalformedPayloads(String payload) {
+        assertThrows(ParseException.class, () -> TokenClaims.parse(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** A claim given twice could otherwise read differently here and in any other JWT library. */
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"sub\":\"a\",\"sub\":\"b\"}", "{\"sub\":\"a\",\"s\\u0075b\":\"b\"}", "{\"exp\":1,\"exp\":null}"
+    })
+    void rejectsDuplicateClaimsLikeNimbus(String payload) {
+        assertThrows(ParseException.class, () -> JWTClaimsSet.parse(payload));
+        assertThrows(ParseException.class, () -> TokenClaims.parse(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String claims(String fields) {
+        return payload(fields, String.valueOf(NOW + 600), String.valueOf(NOW), null);
+    }
+
+    private static String payload(String fields, String exp, String iat, String nbf) {
+        return "{" + fields + ",\"iss\":\"" + ISSUER + "\",\"exp\":" + exp + ",\"iat\":" + iat
+            + (nbf != null ? ",\"nbf\":" + nbf : "") + "}";
+    }
+
+    private static long seconds(Date date) {
+        return date == null ? TokenClaims.ABSENT : date.getTime() / 1000;
+    }
+
+    /** The scope lookup processVote did before TokenClaims. */
+    private static List<String> scopes(JWTClaimsSet claims) throws ParseException {
+        String scope = claims.getStringClaim("scope");
+        if (scope != null) {
+            return Arrays.asList(scope.split(" "));
+        }
+        List<String> scp = claims.getStringListClaim("scp");
+        return scp != null ? scp : List.of();
+    }
+
+    private static boolean accepts(Check check) {
+        try {
+            check.run();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private interface Check {
+        void run() throws Exception;
+    }
+}
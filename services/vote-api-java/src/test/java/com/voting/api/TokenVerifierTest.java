@@ -0,0 +1,132 @@
+package com.voting.api;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenVerifierTest {
+
+    private static final String ISSUER = "http://localhost:4444/";
+    private static final int CALLERS = 8;
+
+    @TempDir
+    Path dir;
+
+    private Vertx vertx;
+    private JwksCache jwks;
+    private String token;
+    private TokenVerifier verifier;
+    private WorkerExecutor blocker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        RSAKey key = LoadTestTokens.generateKey();
+        Path keys = dir.resolve("jwks.json");
+        Files.writeString(keys, new JWKSet(key.toPublicJWK()).toString());
+        jwks = new JwksCache(vertx, WebClient.create(vertx), "", 0, 0, 1000);
+        await(jwks.loadFile(keys.toString()));
+        token = LoadTestTokens.mint(key, ISSUER, 1, Duration.ofMinutes(10)).get(0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (verifier != null) {
+            verifier.close();
+        }
+        if (blocker != null) {
+            blocker.close();
+        }
+        await(vertx.close());
+    }
+
+    @Test
+    void concurrentCallersOfOneTokenShareOneVerification() throws Exception {
+        verifier = new TokenVerifier(vertx, ISSUER, 1, 64, 100, jwks, 0);
+
+        List<Future<TokenClaims>> results = verifyWhileTheWorkerIsBusy();
+
+        TokenClaims first = await(results.get(0));
+        assertEquals("load-test-voter-0", first.subject());
+        for (Future<TokenClaims> result : results) {
+            assertSame(first, await(result));
+        }
+        JsonObject metrics = verifier.metrics();
+        assertEquals(1, metrics.getLong("verified"));
+        assertEquals(CALLERS - 1, metrics.getLong("deduplicated"));
+        assertEquals(1, metrics.getLong("batches"));
+
+        // Later callers are answered from the cache
+        assertSame(first, await(verifier.verify(token)));
+        assertEquals(1, verifier.metrics().getLong("verified"));
+    }
+
+    @Test
+    void failedVerificationFailsEveryWaiter() throws Exception {
+        verifier = new TokenVerifier(vertx, "http://other-issuer/", 1, 64, 100, jwks, 0);
+
+        List<Future<TokenClaims>> results = verifyWhileTheWorkerIsBusy();
+
+        Throwable first = assertThrows(ExecutionException.class, () -> await(results.get(0))).getCause();
+        for (Future<TokenClaims> result : results) {
+            assertSame(first, assertThrows(ExecutionException.class, () -> await(result)).getCause());
+        }
+        JsonObject metrics = verifier.metrics();
+        assertEquals(1, metrics.getLong("rejected"));
+        assertEquals(CALLERS - 1, metrics.getLong("deduplicated"));
+        assertEquals(0, metrics.getInteger("inFlight"));
+
+        // A failure is not cached, so the next caller verifies again
+        assertThrows(ExecutionException.class, () -> await(verifier.verify(token)));
+        assertEquals(2, verifier.metrics().getLong("rejected"));
+    }
+
+    /**
+     * Issues CALLERS verifications of the same token while the verifier's only
+     * worker thread is held, so all of them are pending at once.
+     */
+    private List<Future<TokenClaims>> verifyWhileTheWorkerIsBusy() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blocker = vertx.createSharedWorkerExecutor("jwt-verifier", 1);
+        blocker.executeBlocking(() -> {
+            busy.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }, false);
+        assertTrue(busy.await(10, TimeUnit.SECONDS));
+
+        List<Future<TokenClaims>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(verifier.verify(token));
+        }
+        assertEquals(1, verifier.metrics().getInteger("inFlight"));
+        release.countDown();
+        return results;
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,126 @@
+package com.voting.api;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedTokenCacheTest {
+
+    private static final long NOW = System.currentTimeMillis() / 1000;
+
+    @Test
+    void cachedTokenIsAHitAndOthersMiss() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        TokenClaims claims = claims("alice", NOW + 600);
+        cache.put("header.payload.signature", claims);
+
+        assertSame(claims, cache.get("header.payload.signature"));
+        assertNull(cache.get("header.payload.signaturf"));
+        assertNull(cache.get("header.payload.signature."));
+
+        JsonObject metrics = cache.metrics();
+        assertEquals(1, metrics.getLong("hits"));
+        assertEquals(2, metrics.getLong("misses"));
+        assertEquals(1, metrics.getInteger("size"));
+    }
+
+    @Test
+    void expiredTokenIsAMissAndDropped() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        cache.put("expired", claims("alice", NOW - 1));
+
+        assertNull(cache.get("expired"));
+        assertEquals(0, cache.metrics().getInteger("size"));
+        assertEquals(1, cache.metrics().getLong("misses"));
+    }
+
+    @Test
+    void tokenWithoutExpOrDisabledCacheIsNotStored() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        cache.put("no-exp", TokenClaims.parse("{\"sub\":\"alice\"}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(cache.get("no-exp"));
+
+        VerifiedTokenCache disabled = new VerifiedTokenCache(0);
+        disabled.put("token", claims("alice", NOW + 600));
+        assertNull(disabled.get("token"));
+        assertEquals(0, disabled.metrics().getInteger("size"));
+    }
+
+    @Test
+    void overCapacityEvictsExpiredEntriesFirst() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("expired-" + i, claims("alice", NOW - 1));
+        }
+        for (int i = 0; i < 51; i++) {
+            cache.put("live-" + i, claims("alice", NOW + 600));
+        }
+
+        // 101 entries: the sweep brings it down to 90, all of them live
+        assertEquals(90, cache.metrics().getInteger("size"));
+        assertEquals(11, cache.metrics().getLong("evictions"));
+        int live = 0;
+        for (int i = 0; i < 51; i++) {
+            if (cache.get("live-" + i) != null) {
+                live++;
+            }
+        }
+        assertEquals(51, live);
+    }
+
+    @Test
+    void overCapacityEvictsLiveEntriesDownToATenthUnderTheLimit() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        for (int i = 0; i <= 100; i++) {
+            cache.put("live-" + i, claims("alice", NOW + 600));
+        }
+
+        assertEquals(90, cache.metrics().getInteger("size"));
+        assertEquals(11, cache.metrics().getLong("evictions"));
+    }
+
+    @Test
+    void concurrentPutsNeverEvictBelowTheSweepTarget() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(1000);
+        TokenClaims claims = claims("alice", NOW + 600);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) {
+                    cache.put(thread + "-" + i, claims);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // One sweep at a time, so overlapping sweeps cannot each remove their own tenth
+        int size = cache.metrics().getInteger("size");
+        assertTrue(size >= 900, "size " + size);
+        assertEquals(40_000 - size, cache.metrics().getLong("evictions"));
+    }
+
+    private static TokenClaims claims(String sub, long exp) throws Exception {
+        return TokenClaims.parse(new JsonObject().put("sub", sub).put("exp", exp)
+            .encode().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,180 @@
+package com.voting.api;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifierRegistryTest {
+
+    private static final String PAYLOAD = "{\"sub\":\"alice\",\"iss\":\"http://localhost:4444/\"}";
+
+    private static RSAKey rsa;
+    private static ECKey ec;
+    private static ECKey ecP384;
+    private static KeyPair ed25519;
+    private static OctetKeyPair ed25519Jwk;
+    private static VerifierRegistry registry;
+
+    @BeforeAll
+    static void keys() throws Exception {
+        rsa = new RSAKeyGenerator(2048).keyID("rsa").generate();
+        ec = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+        ecP384 = new ECKeyGenerator(Curve.P_384).keyID("ec384").generate();
+        ed25519 = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        ed25519Jwk = new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(rawEd25519(ed25519))).keyID("ed").build();
+        registry = VerifierRegistry.of(new JWKSet(List.<JWK>of(
+            rsa.toPublicJWK(), ec.toPublicJWK(), ecP384.toPublicJWK(), ed25519Jwk)));
+    }
+
+    @Test
+    void acceptsRs256Es256AndEdDsaTokens() throws Exception {
+        assertTrue(verify(registry, sign(new RSASSASigner(rsa), JWSAlgorithm.RS256, "rsa")));
+        assertTrue(verify(registry, sign(new RSASSASigner(rsa), JWSAlgorithm.PS256, "rsa")));
+        assertTrue(verify(registry, sign(new ECDSASigner(ec), JWSAlgorithm.ES256, "ec")));
+        assertTrue(verify(registry, sign(new ECDSASigner(ecP384), JWSAlgorithm.ES384, "ec384")));
+        assertTrue(verify(registry, signEd25519(ed25519, "ed", PAYLOAD)));
+        assertEquals(4, registry.size());
+    }
+
+    @Test
+    void ed25519KeyEncodingMatchesTheJdk() {
+        // The JDK's own SubjectPublicKeyInfo is the hand-written prefix followed by the raw key
+        byte[] encoded = ed25519.getPublic().getEncoded();
+        assertArrayEquals(new byte[] {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00},
+            Arrays.copyOf(encoded, 12));
+        assertEquals(44, encoded.length);
+    }
+
+    @Test
+    void rejectsAlgorithmsTheKeyTypeDoesNotSupport() throws Exception {
+        // HMAC keyed with the RSA modulus is the classic confusion attack
+        byte[] modulus = rsa.getModulus().decode();
+        SignedJWT hs256 = sign(new MACSigner(modulus), JWSAlgorithm.HS256, "rsa");
+        assertThrows(BadJOSEException.class, () -> verify(registry, hs256));
+
+        SignedJWT es256OnRsa = sign(new ECDSASigner(ec), JWSAlgorithm.ES256, "rsa");
+        assertThrows(BadJOSEException.class, () -> verify(registry, es256OnRsa));
+        SignedJWT rs256OnEc = sign(new RSASSASigner(rsa), JWSAlgorithm.RS256, "ec");
+        assertThrows(BadJOSEException.class, () -> verify(registry, rs256OnEc));
+        SignedJWT edDsaOnRsa = signEd25519(ed25519, "rsa", PAYLOAD);
+        assertThrows(BadJOSEException.class, () -> verify(registry, edDsaOnRsa));
+        SignedJWT rs256OnEd = sign(new RSASSASigner(rsa), JWSAlgorithm.RS256, "ed");
+        assertThrows(BadJOSEException.class, () -> verify(registry, rs256OnEd));
+    }
+
+    @Test
+    void rejectsTheWrongCurveForAnEcKey() throws Exception {
+        // A P-384 key only verifies ES384, whatever the header claims
+        SignedJWT es256OnP384 = sign(new ECDSASigner(ec), JWSAlgorithm.ES256, "ec384");
+        assertThrows(BadJOSEException.class, () -> verify(registry, es256OnP384));
+    }
+
+    @Test
+    void headerAlgMustMatchTheAlgTheKeyDeclares() throws Exception {
+        RSAKey declared = new RSAKeyGenerator(2048).keyID("declared").algorithm(JWSAlgorithm.RS256).generate();
+        VerifierRegistry keys = VerifierRegistry.of(new JWKSet(declared.toPublicJWK()));
+
+        assertTrue(verify(keys, sign(new RSASSASigner(declared), JWSAlgorithm.RS256, "declared")));
+        SignedJWT ps256 = sign(new RSASSASigner(declared), JWSAlgorithm.PS256, "declared");
+        assertThrows(BadJOSEException.class, () -> verify(keys, ps256));
+        SignedJWT rs512 = sign(new RSASSASigner(declared), JWSAlgorithm.RS512, "declared");
+        assertThrows(BadJOSEException.class, () -> verify(keys, rs512));
+    }
+
+    @Test
+    void okpKeysOtherThanEd25519AreSkipped() throws Exception {
+        byte[] x = rawEd25519(ed25519);
+        OctetKeyPair x25519 = new OctetKeyPair.Builder(Curve.X25519, Base64URL.encode(x)).keyID("x25519").build();
+        OctetKeyPair ed448 = new OctetKeyPair.Builder(Curve.Ed448, Base64URL.encode(new byte[57])).keyID("ed448").build();
+        VerifierRegistry keys = VerifierRegistry.of(new JWKSet(List.<JWK>of(x25519, ed448)));
+
+        assertTrue(keys.isEmpty());
+        assertFalse(keys.contains("x25519"));
+        // Even a signature that is valid for the same bytes read as an Ed25519 key
+        SignedJWT token = signEd25519(ed25519, "x25519", PAYLOAD);
+        assertThrows(BadJOSEException.class, () -> verify(keys, token));
+        assertThrows(JOSEException.class, () -> new EdDsaVerifier(x25519));
+    }
+
+    @Test
+    void rejectsATamperedEdDsaToken() throws Exception {
+        String[] parts = signEd25519(ed25519, "ed", PAYLOAD).serialize().split("\\.");
+
+        byte[] signature = Base64URL.from(parts[2]).decode();
+        signature[7] ^= 1;
+        SignedJWT badSignature = SignedJWT.parse(parts[0] + "." + parts[1] + "." + Base64URL.encode(signature));
+        assertFalse(verify(registry, badSignature));
+
+        String otherPayload = Base64URL.encode("{\"sub\":\"mallory\"}").toString();
+        assertFalse(verify(registry, SignedJWT.parse(parts[0] + "." + otherPayload + "." + parts[2])));
+
+        // A signature from another Ed25519 key
+        KeyPair other = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        assertFalse(verify(registry, signEd25519(other, "ed", PAYLOAD)));
+    }
+
+    @Test
+    void headerWithoutKidNeedsASingleKeySet() throws Exception {
+        VerifierRegistry single = VerifierRegistry.of(new JWKSet(rsa.toPublicJWK()));
+        assertTrue(verify(single, sign(new RSASSASigner(rsa), JWSAlgorithm.RS256, null)));
+        SignedJWT noKid = sign(new RSASSASigner(rsa), JWSAlgorithm.RS256, null);
+        assertThrows(BadJOSEException.class, () -> verify(registry, noKid));
+    }
+
+    private static boolean verify(VerifierRegistry keys, SignedJWT jwt) throws Exception {
+        return jwt.verify(keys.verifier(jwt.getHeader()));
+    }
+
+    private static SignedJWT sign(JWSSigner signer, JWSAlgorithm alg, String kid) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(alg).keyID(kid).build(), JWTClaimsSet.parse(PAYLOAD));
+        jwt.sign(signer);
+        return jwt;
+    }
+
+    // Nimbus' Ed25519Signer needs Tink, so EdDSA tokens are signed with the JDK here
+    private static SignedJWT signEd25519(KeyPair key, String kid, String payload) throws Exception {
+        String input = new JWSHeader.Builder(JWSAlgorithm.EdDSA).keyID(kid).build().toBase64URL()
+            + "." + new Payload(payload).toBase64URL();
+        Signature signer = Signature.getInstance("Ed25519");
+        signer.initSign(key.getPrivate());
+        signer.update(input.getBytes(StandardCharsets.US_ASCII));
+        return SignedJWT.parse(input + "." + Base64URL.encode(signer.sign()));
+    }
+
+    private static byte[] rawEd25519(KeyPair key) {
+        byte[] encoded = key.getPublic().getEncoded();
+        return Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+    }
+}
@@ -0,0 +1,254 @@
+package com.voting.api;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteApiVerticleTest {
+
+    private static final String ADMIN_TOKEN = "test-admin-token";
+    private static final long NOW = System.currentTimeMillis() / 1000;
+
+    private Vertx vertx;
+    private VoteServices services;
+    private WebClient client;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        services = await(VoteServices.startInMemory(vertx));
+        VoteApiVerticle verticle = new VoteApiVerticle(services, 0, ADMIN_TOKEN);
+        await(vertx.deployVerticle(verticle));
+        port = verticle.actualPort();
+        client = WebClient.create(vertx);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        await(services.close());
+        await(vertx.close());
+    }
+
+    @Test
+    void denylistDocumentIsApplied() throws Exception {
+        HttpResponse<Buffer> response = postDenylist("Bearer " + ADMIN_TOKEN, new JsonObject()
+            .put("tokens", new JsonArray().add(new JsonObject().put("jti", "j1").put("exp", NOW + 600)))
+            .encode());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(1, response.bodyAsJsonObject().getInteger("applied"));
+        assertTrue(services.denylist().isRevoked(claims("alice", "j1")));
+    }
+
+    @Test
+    void denylistRejectsBadDocumentsWithoutChangingState() throws Exception {
+        String[] bodies = {
+            "",
+            "{\"tokens\": [",
+            "[]",
+            "{\"tokens\": \"j1\"}",
+            "{\"tokens\": [{\"jti\": \"j1\"}, {\"exp\": 1}]}",
+            "{\"tokens\": [{\"jti\": \"j1\"}], \"subjects\": [{\"sub\": \"alice\", \"revokedAt\": \"now\"}]}",
+        };
+
+        for (String body : bodies) {
+            HttpResponse<Buffer> response = postDenylist("Bearer " + ADMIN_TOKEN, body);
+            assertEquals(400, response.statusCode(), body);
+            assertEquals("invalid denylist document", response.bodyAsJsonObject().getString("error"));
+        }
+        assertEquals(0, services.denylist().metrics().getInteger("tokens"));
+        assertEquals(0, services.denylist().metrics().getInteger("subjects"));
+        assertFalse(services.denylist().isRevoked(claims("alice", "j1")));
+    }
+
+    @Test
+    void denylistRequiresTheAdminToken() throws Exception {
+        String body = new JsonObject().put("tokens", new JsonArray().add(new JsonObject().put("jti", "j1"))).encode();
+
+        assertEquals(401, postDenylist(null, body).statusCode());
+        assertEquals(401, postDenylist("Bearer wrong", body).statusCode());
+        assertEquals(0, services.denylist().metrics().getInteger("tokens"));
+    }
+
+    @Test
+    void votesArePagedWithACursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            vote("voter-" + i);
+        }
+
+        JsonObject page = getJson("/votes?limit=2");
+        assertEquals(List.of("voter-0", "voter-1"), subs(page));
+        assertEquals(2, page.getLong("nextCursor"));
+
+        page = getJson("/votes?limit=2&cursor=2");
+        assertEquals(List.of("voter-2", "voter-3"), subs(page));
+        assertEquals(4, page.getLong("nextCursor"));
+
+        // The last page has no next cursor
+        page = getJson("/votes?limit=2&cursor=4");
+        assertEquals(List.of("voter-4"), subs(page));
+        assertNull(page.getValue("nextCursor"));
+
+        page = getJson("/votes?cursor=5");
+        assertEquals(List.of(), subs(page));
+        assertNull(page.getValue("nextCursor"));
+    }
+
+    @Test
+    void pageStopsAtAVoteStillBeingRecorded() throws Exception {
+        vote("voter-0");
+        vote("voter-1");
+        long slot = services.store().log().reserve();
+        vote("voter-3");
+
+        JsonObject page = getJson("/votes");
+        assertEquals(List.of("voter-0", "voter-1"), subs(page));
+        assertEquals(slot, page.getLong("nextCursor"));
+
+        commit(slot, "voter-2");
+        page = getJson("/votes?cursor=" + slot);
+        assertEquals(List.of("voter-2", "voter-3"), subs(page));
+        assertNull(page.getValue("nextCursor"));
+    }
+
+    @Test
+    void streamStopsAtAVoteStillBeingRecorded() throws Exception {
+        vote("voter-0");
+        vote("voter-1");
+        long slot = services.store().log().reserve();
+        vote("voter-3");
+
+        HttpResponse<Buffer> response = await(client.get(port, "localhost", "/votes?format=ndjson").send());
+        assertEquals("application/x-ndjson", response.getHeader("content-type"));
+        assertEquals(List.of("voter-0", "voter-1"), ndjsonSubs(response));
+
+        commit(slot, "voter-2");
+        response = await(client.get(port, "localhost", "/votes?cursor=1")
+            .putHeader("Accept", "application/x-ndjson").send());
+        assertEquals(List.of("voter-1", "voter-2", "voter-3"), ndjsonSubs(response));
+    }
+
+    @Test
+    void invalidCursorOrLimitIsRejected() throws Exception {
+        for (String query : List.of("cursor=-1", "cursor=abc", "limit=0", "limit=x")) {
+            HttpResponse<Buffer> response = await(client.get(port, "localhost", "/votes?" + query).send());
+            assertEquals(400, response.statusCode(), query);
+        }
+    }
+
+    @Test
+    void oversizedVoteBodyIsRejectedWith413() throws Exception {
+        HttpResponse<Buffer> response = await(client.post(port, "localhost", "/vote")
+            .putHeader("Authorization", "Bearer token")
+            .sendBuffer(Buffer.buffer(new byte[4097])));
+
+        assertEquals(413, response.statusCode());
+        assertEquals("request body too large", response.bodyAsJsonObject().getString("error"));
+    }
+
+    @Test
+    void oversizedChunkedBodyIsRejectedWith413() throws Exception {
+        HttpClient http = vertx.createHttpClient();
+        HttpClientResponse response = await(http.request(HttpMethod.POST, port, "localhost", "/vote")
+            .compose(request -> {
+                request.setChunked(true);
+                // No Content-Length, so the limit is enforced while reading
+                for (int i = 0; i < 8; i++) {
+                    request.write(Buffer.buffer(new byte[1024]));
+                }
+                request.end();
+                return request.response();
+            }));
+
+        assertEquals(413, response.statusCode());
+    }
+
+    @Test
+    void bodyAtTheLimitIsAccepted() throws Exception {
+        HttpResponse<Buffer> response = await(client.post(port, "localhost", "/vote")
+            .sendBuffer(Buffer.buffer(new byte[4096])));
+
+        // Past the body handler, stopped only for the missing token
+        assertEquals(401, response.statusCode());
+    }
+
+    @Test
+    void getRoutesDoNotBufferBodies() throws Exception {
+        // Well over any body limit: a body handler on these routes would answer 413
+        Buffer body = Buffer.buffer(new byte[64 * 1024]);
+        for (String uri : List.of("/health", "/votes", "/votes/e1", "/metrics")) {
+            HttpResponse<Buffer> response = await(client.get(port, "localhost", uri).sendBuffer(body));
+            assertEquals(200, response.statusCode(), uri);
+        }
+    }
+
+    private void vote(String sub) {
+        VoteStore store = services.store();
+        VoteStore.Election election = store.election("e1");
+        int voter = store.intern(sub);
+        assertTrue(election.claim(voter));
+        store.record(election, store.prepare(election, voter, "c1"));
+    }
+
+    // Commits a slot reserved by hand, as the vote path would once it got there
+    private void commit(long slot, String sub) {
+        VoteStore store = services.store();
+        store.log().write(slot, 1, slot, System.currentTimeMillis(),
+            store.election("e1").symbol(), store.intern("c1"), store.intern(sub));
+    }
+
+    private JsonObject getJson(String uri) throws Exception {
+        HttpResponse<Buffer> response = await(client.get(port, "localhost", uri).send());
+        assertEquals(200, response.statusCode(), uri);
+        return response.bodyAsJsonObject();
+    }
+
+    private static List<String> subs(JsonObject page) {
+        return page.getJsonArray("votes").stream()
+            .map(vote -> ((JsonObject) vote).getString("sub"))
+            .toList();
+    }
+
+    private static List<String> ndjsonSubs(HttpResponse<Buffer> response) {
+        return response.bodyAsString().lines()
+            .map(line -> new JsonObject(line).getString("sub"))
+            .toList();
+    }
+
+    private HttpResponse<Buffer> postDenylist(String authorization, String body) throws Exception {
+        var request = client.post(port, "localhost", "/admin/denylist");
+        if (authorization != null) {
+            request.putHeader("Authorization", authorization);
+        }
+        return await(request.sendBuffer(Buffer.buffer(body)));
+    }
+
+    private static TokenClaims claims(String sub, String jti) throws Exception {
+        return TokenClaims.parse(new JsonObject().put("sub", sub).put("jti", jti).put("iat", NOW)
+            .encode().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+}
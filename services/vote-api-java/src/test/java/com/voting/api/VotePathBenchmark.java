@@ -0,0 +1,156 @@
+package com.voting.api;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POST /vote end to end over loopback HTTP, with VERTICLE_INSTANCES event loops.
+ *
+ * The services start as in production but with votes kept in memory only, and the JWKS
+ * cache is seeded with a key generated here. Each request carries a signed token
+ * and votes in an election that token has not voted in, so every one is a 201 that
+ * passes verification, the rate limiter, body parsing and the vote store; any other
+ * status fails the run. Every token is verified once during setup, so requests are
+ * answered from the verified-token cache, as for a voter who votes in several
+ * elections with one token; JwtVerificationBenchmark covers the signature check.
+ *
+ * The client runs in the same JVM, on its own event loops, so on a small machine it
+ * competes with the server for CPU; compare instance counts on a host with at least
+ * as many cores as the largest count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class VotePathBenchmark {
+
+    // Requests in flight per benchmark invocation
+    private static final int CONCURRENCY = 256;
+    // Each token votes once every TOKENS votes, far below the per-subject rate limit
+    private static final int TOKENS = 10_000;
+    private static final String ISSUER = "http://localhost:4444/";
+
+    @Param({"1", "2", "4", "8"})
+    public int instances;
+
+    private Vertx vertx;
+    private Vertx clientVertx;
+    private VoteServices services;
+    private Context clientContext;
+    private HttpClient client;
+    private List<String> authorizations;
+    private long next;
+
+    @Setup
+    public void setUp() throws Exception {
+        // A line per vote, and the background JWKS fetch failing without Hydra, would swamp the output
+        ((Logger) LoggerFactory.getLogger("com.voting.api")).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(JwksCache.class)).setLevel(Level.ERROR);
+
+        vertx = Vertx.vertx(new VertxOptions().setPreferNativeTransport(true));
+        // Never VOTE_DATA_DIR or VOTE_PG_URI from the environment: synthetic votes must not reach real storage
+        services = await(VoteServices.startInMemory(vertx));
+
+        RSAKey key = LoadTestTokens.generateKey();
+        Path jwks = Files.createTempFile("vote-bench-jwks", ".json");
+        Files.writeString(jwks, new JWKSet(key.toPublicJWK()).toString());
+        await(services.jwksCache().loadFile(jwks.toString()));
+        Files.delete(jwks);
+
+        authorizations = new ArrayList<>(TOKENS);
+        List<Future<TokenClaims>> verified = new ArrayList<>(TOKENS);
+        for (String token : LoadTestTokens.mint(key, ISSUER, TOKENS, Duration.ofHours(2))) {
+            authorizations.add("Bearer " + token);
+            verified.add(services.tokenVerifier().verify(token));
+        }
+        await(Future.all(verified));
+
+        await(vertx.deployVerticle(() -> new VoteApiVerticle(services), new DeploymentOptions().setInstances(instances)));
+
+        clientVertx = Vertx.vertx(new VertxOptions().setPreferNativeTransport(true));
+        clientContext = clientVertx.getOrCreateContext();
+        client = clientVertx.createHttpClient(
+            new HttpClientOptions().setDefaultHost("localhost").setDefaultPort(VoteApiVerticle.PORT).setKeepAlive(true),
+            new PoolOptions().setHttp1MaxSize(Math.max(8, instances * 8)));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        await(clientVertx.close());
+        await(services.close());
+        await(vertx.close());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public void vote() throws Exception {
+        long first = next;
+        next += CONCURRENCY;
+        Promise<Void> done = Promise.promise();
+        // Sent from the client's event loop, so each response body is read on the thread it arrives on
+        clientContext.runOnContext(v -> {
+            List<Future<Integer>> votes = new ArrayList<>(CONCURRENCY);
+            for (long n = first; n < first + CONCURRENCY; n++) {
+                votes.add(vote(authorizations.get((int) (n % TOKENS)), "bench-election-" + n / TOKENS));
+            }
+            Future.all(votes).<Void>mapEmpty().onComplete(done);
+        });
+        await(done.future());
+    }
+
+    private Future<Integer> vote(String authorization, String electionId) {
+        Buffer body = Buffer.buffer("{\"electionId\":\"" + electionId + "\",\"candidateId\":\"candidate-"
+            + (electionId.hashCode() & 3) + "\"}");
+        return client.request(new RequestOptions().setMethod(HttpMethod.POST).setURI("/vote")
+                .putHeader("authorization", authorization)
+                .putHeader("content-type", "application/json"))
+            .compose(request -> request.send(body))
+            .compose(response -> response.body().map(payload -> {
+                if (response.statusCode() != 201) {
+                    throw new IllegalStateException("POST /vote returned " + response.statusCode() + ": " + payload);
+                }
+                return response.statusCode();
+            }));
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(60, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,63 @@
+package com.voting.api;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POST /vote body parsing: Buffer.toJsonObject() against VoteRequest.parse.
+ * Run with -prof gc to compare allocation per body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VoteRequestBenchmark {
+
+    @Param({"plain", "extraFields"})
+    public String body;
+
+    private Buffer buffer;
+
+    @Setup
+    public void setUp() {
+        String json = switch (body) {
+            case "plain" -> "{\"electionId\":\"election-2025\",\"candidateId\":\"candidate-42\"}";
+            case "extraFields" -> "{\"electionId\":\"election-2025\",\"client\":{\"app\":\"web\",\"version\":[1,4,2]},"
+                + "\"candidateId\":\"candidate-42\",\"note\":\"first vote \\u2713\",\"ts\":1.7e9}";
+            default -> throw new IllegalArgumentException(body);
+        };
+        // BodyHandler hands the route a heap buffer, as here
+        buffer = Buffer.buffer(json);
+    }
+
+    @Benchmark
+    public void jsonObject(Blackhole bh) {
+        JsonObject json = buffer.toJsonObject();
+        bh.consume(json.getString("electionId"));
+        bh.consume(json.getString("candidateId"));
+    }
+
+    @Benchmark
+    public void voteRequest(Blackhole bh) throws ParseException {
+        VoteRequest request = VoteRequest.parse(buffer);
+        bh.consume(request.electionId());
+        bh.consume(request.candidateId());
+    }
+}
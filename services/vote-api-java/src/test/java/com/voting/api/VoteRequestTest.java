@@ -0,0 +1,147 @@
+package com.voting.api;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.text.ParseException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks VoteRequest against Buffer.toJsonObject(), the Jackson path it replaced:
+ * same ids for bodies both accept, and no body accepted that Jackson rejects.
+ */
+class VoteRequestTest {
+
+    private static final String IDS = "\"electionId\":\"e\",\"candidateId\":\"c\"";
+
+    static Stream<String> wellFormed() {
+        return Stream.of(
+            "{" + IDS + "}",
+            "{\"candidateId\":\"c\",\"electionId\":\"e\"}",
+            " \r\n\t{ \"electionId\" : \"e\" ,\t\"candidateId\":\"c\" }\n",
+            // Missing and null ids are left null
+            "{}",
+            "{\"electionId\":\"e\"}",
+            "{\"electionId\":null,\"candidateId\":\"c\"}",
+            // Escapes and non-ASCII
+            "{\"electionId\":\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\",\"candidateId\":\"\\u00e9\\ud83d\\uddf3\"}",
+            "{\"electionId\":\"élection-ü\",\"candidateId\":\"候補\"}",
+            "{\"\\u0065lectionId\":\"e\",\"candidat\\u0065Id\":\"c\"}",
+            // Other fields are skipped
+            "{" + IDS + ",\"x\":[]}",
+            "{" + IDS + ",\"x\":{}}",
+            "{\"x\":{\"a\":[1,-0,0.5,-2.5e3,1E+2,3e-0,{\"b\":null}],\"c\":\"}]\\\"\\u0041\"},\"y\":true," + IDS + "}",
+            "{" + IDS + ",\"x\":[ [ ] , { } , \"s\" , false , null , 0 ]}",
+            "{" + IDS + ",\"electionid\":1,\"candidate\":{}}",
+            "{" + IDS + ",\"x\":" + "[".repeat(64) + "]".repeat(64) + "}"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("wellFormed")
+    void readsTheSameIdsAsJsonObject(String body) throws ParseException {
+        JsonObject expected = Buffer.buffer(body).toJsonObject();
+        VoteRequest request = VoteRequest.parse(Buffer.buffer(body));
+
+        assertEquals(expected.getString("electionId"), request.electionId());
+        assertEquals(expected.getString("candidateId"), request.candidateId());
+    }
+
+    static Stream<String> malformed() {
+        return Stream.of(
+            "", " ", "null", "[]", "\"e\"", "1", "{", "}", "{} {}", "{},",
+            "{\"electionId\":\"e\",}", "{,\"electionId\":\"e\"}", "{\"electionId\" \"e\"}",
+            "{\"electionId\":}", "{\"electionId\":\"e\"", "{\"electionId\":\"e", "{electionId:\"e\"}",
+            "{\"electionId\":\"e\\q\"}", "{\"electionId\":\"e\\u00g1\"}", "{\"electionId\":\"e\\u00\"}",
+            "{\"electionId\":\"e\tf\"}", "{\"elec\ntionId\":\"e\"}",
+            // Malformed values in skipped fields
+            "{" + IDS + ",\"x\":[}}",
+            "{" + IDS + ",\"x\":--e+}",
+            "{" + IDS + ",\"x\":{\"a\" 1 2 ]}",
+            "{" + IDS + ",\"x\":\"\\q\"}",
+            "{" + IDS + ",\"x\":\"\\u12\"}",
+            "{" + IDS + ",\"x\":\"a\u0001b\"}",
+            "{" + IDS + ",\"x\":\"unterminated}",
+            "{" + IDS + ",\"x\":[1,]}",
+            "{" + IDS + ",\"x\":[,1]}",
+            "{" + IDS + ",\"x\":[1 2]}",
+            "{" + IDS + ",\"x\":[1}",
+            "{" + IDS + ",\"x\":{\"a\":1]}",
+            "{" + IDS + ",\"x\":{\"a\":1,}}",
+            "{" + IDS + ",\"x\":{\"a\"}}",
+            "{" + IDS + ",\"x\":{1:2}}",
+            "{" + IDS + ",\"x\":{\"a\\q\":1}}",
+            "{" + IDS + ",\"x\":" + "[".repeat(10) + "]".repeat(9) + "}",
+            "{" + IDS + ",\"x\":-}",
+            "{" + IDS + ",\"x\":+1}",
+            "{" + IDS + ",\"x\":1.}",
+            "{" + IDS + ",\"x\":.5}",
+            "{" + IDS + ",\"x\":1e}",
+            "{" + IDS + ",\"x\":1e+}",
+            "{" + IDS + ",\"x\":1.5.5}",
+            "{" + IDS + ",\"x\":0x10}",
+            "{" + IDS + ",\"x\":truth}",
+            "{" + IDS + ",\"x\":nul}",
+            "{" + IDS + ",\"x\":}"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("malformed")
+    void rejectsWhatJsonObjectRejects(String body) {
+        assertThrows(DecodeException.class, () -> Buffer.buffer(body).toJsonObject());
+        assertThrows(ParseException.class, () -> VoteRequest.parse(Buffer.buffer(body)));
+    }
+
+    static Stream<String> stricterThanJsonObject() {
+        return Stream.of(
+            // Jackson keeps the last duplicate; a vote must say one thing
+            "{" + IDS + ",\"electionId\":\"f\"}",
+            "{" + IDS + ",\"candidateId\":null}",
+            // Ids must be strings of 1 to MAX_ID_LENGTH characters
+            "{\"electionId\":1,\"candidateId\":\"c\"}",
+            "{\"electionId\":\"e\",\"candidateId\":[\"c\"]}",
+            "{\"electionId\":\"\",\"candidateId\":\"c\"}",
+            "{\"electionId\":\"e\",\"candidateId\":\"" + "c".repeat(VoteRequest.MAX_ID_LENGTH + 1) + "\"}",
+            // Skipped values may not nest deeper than the cursor allows
+            "{" + IDS + ",\"x\":" + "[".repeat(65) + "]".repeat(65) + "}"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("stricterThanJsonObject")
+    void rejectsBodiesJsonObjectWouldAccept(String body) {
+        assertDoesNotThrow(() -> Buffer.buffer(body).toJsonObject());
+        assertThrows(ParseException.class, () -> VoteRequest.parse(Buffer.buffer(body)));
+    }
+
+    @Test
+    void acceptsIdsOfMaximumLength() throws ParseException {
+        String id = "é".repeat(VoteRequest.MAX_ID_LENGTH);
+        VoteRequest request = VoteRequest.parse(Buffer.buffer("{\"electionId\":\"" + id + "\",\"candidateId\":\"c\"}"));
+        assertEquals(id, request.electionId());
+    }
+
+    @Test
+    void reportsTheOffsetOfTheError() {
+        ParseException e = assertThrows(ParseException.class,
+            () -> VoteRequest.parse(Buffer.buffer("{" + IDS + ",\"x\":[}}")));
+        assertEquals(("{" + IDS + ",\"x\":[").length(), e.getErrorOffset());
+    }
+
+    @Test
+    void readsFromAnOffsetIntoTheBackingArray() throws ParseException {
+        Buffer body = Buffer.buffer("xx{" + IDS + "}").getBuffer(2, 2 + IDS.length() + 2);
+        VoteRequest request = VoteRequest.parse(body);
+        assertEquals("e", request.electionId());
+        assertEquals("c", request.candidateId());
+    }
+}
@@ -0,0 +1,170 @@
+package com.voting.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotWatermarkPassesSlotsLeftEmptyByACrash() throws IOException {
+        try (VoteStore store = VoteStore.open(dir)) {
+            vote(store, "e1", "alice", "c1");
+            vote(store, "e1", "bob", "c2");
+            vote(store, "e1", "carol", "c1");
+            store.sync(0, store.log().size());
+        }
+        blankSlot(1);
+
+        try (VoteStore store = VoteStore.open(dir)) {
+            assertNull(store.log().read(1));
+            assertFalse(store.log().inFlight(1));
+            vote(store, "e1", "dave", "c1");
+            vote(store, "e1", "erin", "c2");
+            vote(store, "e1", "frank", "c1");
+
+            assertEquals(6, store.snapshot());
+            assertEquals(6, store.snapshot());
+        }
+
+        try (VoteStore store = VoteStore.open(dir)) {
+            assertEquals(6, store.snapshotWatermark());
+            VoteStore.Election election = store.find("e1");
+            assertEquals(5, election.ballots().size());
+            assertEquals(4, election.tallies().get(store.intern("c1")).sum());
+            assertEquals(1, election.tallies().get(store.intern("c2")).sum());
+        }
+    }
+
+    @Test
+    void reopenRestoresSnapshotAndReplaysTail() throws IOException {
+        try (VoteStore store = VoteStore.open(dir)) {
+            vote(store, "e1", "alice", "c1");
+            vote(store, "e1", "bob", "c2");
+            vote(store, "e2", "alice", "c3");
+            assertEquals(3, store.snapshot());
+            // The tail: only in the ledger
+            vote(store, "e1", "carol", "c2");
+            vote(store, "e3", "bob", "c1");
+            store.sync(0, store.log().size());
+        }
+
+        try (VoteStore store = VoteStore.open(dir)) {
+            assertEquals(3, store.snapshotWatermark());
+            assertEquals(5, store.log().size());
+            assertEquals(Map.of("c1", 1L, "c2", 2L), tallies(store, "e1"));
+            assertEquals(Map.of("c3", 1L), tallies(store, "e2"));
+            assertEquals(Map.of("c1", 1L), tallies(store, "e3"));
+            assertFalse(store.find("e1").claim(store.intern("carol")));
+            assertTrue(store.find("e1").claim(store.intern("dave")));
+
+            VoteStore.Election e1 = store.find("e1");
+            e1.release(store.intern("dave"));
+            vote(store, "e1", "dave", "c1");
+            assertEquals(6, store.snapshot());
+        }
+
+        try (VoteStore store = VoteStore.open(dir)) {
+            assertEquals(6, store.snapshotWatermark());
+            assertEquals(Map.of("c1", 2L, "c2", 2L), tallies(store, "e1"));
+        }
+    }
+
+    @Test
+    void snapshotLeavesOutBallotsAboveTheWatermark() throws IOException {
+        try (VoteStore store = VoteStore.open(dir)) {
+            vote(store, "e1", "alice", "c1");
+            // A vote still being written holds the watermark at its slot
+            long inFlight = store.log().reserve();
+            vote(store, "e1", "bob", "c2");
+
+            assertEquals(inFlight, store.snapshot());
+        }
+        // bob's slot never reached the disk
+        blankSlot(2);
+
+        try (VoteStore store = VoteStore.open(dir)) {
+            assertEquals(Map.of("c1", 1L), tallies(store, "e1"));
+            assertTrue(store.find("e1").claim(store.intern("bob")));
+        }
+    }
+
+    @Test
+    void votesWhoseSymbolsMissedTheJournalAreDroppedOnRecovery() throws IOException {
+        long journaled;
+        try (VoteStore store = VoteStore.open(dir)) {
+            vote(store, "e1", "alice", "c1");
+            store.sync(0, store.log().size());
+            journaled = Files.size(dir.resolve(VoteStore.SYMBOLS_FILE));
+            // Its ledger record reaches the page cache, its new symbol never reaches the journal
+            vote(store, "e1", "bob", "c1");
+        }
+        try (FileChannel symbols = FileChannel.open(dir.resolve(VoteStore.SYMBOLS_FILE), StandardOpenOption.WRITE)) {
+            symbols.truncate(journaled);
+        }
+
+        try (VoteStore store = VoteStore.open(dir)) {
+            assertEquals(1, store.log().size());
+            assertEquals(Map.of("c1", 1L), tallies(store, "e1"));
+            assertTrue(store.find("e1").claim(store.intern("bob")));
+        }
+    }
+
+    @Test
+    void adoptKeepsTheVoteAsGivenAndSkipsVotersWithABallot() throws IOException {
+        try (VoteStore store = VoteStore.open(dir)) {
+            vote(store, "e1", "alice", "c1");
+            Vote adopted = store.adopt("e1", "bob", "c2", 1234, 5, 6);
+            assertEquals(1234, adopted.votedAt());
+            assertEquals(5, adopted.idHi());
+            assertEquals(6, adopted.idLo());
+            assertNull(store.adopt("e1", "alice", "c2", 1, 1, 1));
+            store.sync(0, store.log().size());
+        }
+
+        try (VoteStore store = VoteStore.open(dir)) {
+            assertEquals(Map.of("c1", 1L, "c2", 1L), tallies(store, "e1"));
+        }
+    }
+
+    private static Map<String, Long> tallies(VoteStore store, String electionId) {
+        Map<String, Long> counts = new HashMap<>();
+        store.find(electionId).tallies().forEach((candidate, count) -> {
+            if (count.sum() > 0) {
+                counts.put(store.symbol(candidate), count.sum());
+            }
+        });
+        return counts;
+    }
+
+    static Vote vote(VoteStore store, String electionId, String sub, String candidateId) {
+        VoteStore.Election election = store.election(electionId);
+        int voter = store.intern(sub);
+        if (!election.claim(voter)) {
+            throw new IllegalStateException(sub + " already voted in " + electionId);
+        }
+        return store.record(election, store.prepare(election, voter, candidateId));
+    }
+
+    private void blankSlot(long slot) throws IOException {
+        try (FileChannel ledger = FileChannel.open(dir.resolve(VoteStore.LEDGER_FILE), StandardOpenOption.WRITE)) {
+            ledger.write(ByteBuffer.allocate(MappedVoteLog.RECORD_BYTES), slot * MappedVoteLog.RECORD_BYTES);
+        }
+    }
+}
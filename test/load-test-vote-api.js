@@ -12,16 +12,21 @@
  * - User votes (many times) -> Vote API validates token locally using JWKS
  * - JWKS is fetched from Hydra once, then cached (no per-request Hydra calls)
  * 
- * Note: This test uses mock tokens to measure throughput.
- * In production, tokens come from Hydra OAuth flow.
+ * Tokens: set TOKENS_FILE to a JSON array of signed access tokens, e.g. from
+ * vote-api-java's LoadTestTokens (see LOAD_TESTING.md), and every vote goes through
+ * real verification. Without it a placeholder token is sent, every request is
+ * rejected with 401, and the run only measures the rejection path.
  * 
  * Run: k6 run test/load-test-vote-api.js
+ * With signed tokens: k6 run -e TOKENS_FILE=/abs/path/tokens.json test/load-test-vote-api.js
  * With higher load: k6 run -e LOAD=high test/load-test-vote-api.js
+ * Against vote-api-java: k6 run -e VOTE_API_URL=http://localhost:4001 test/load-test-vote-api.js
  */
 
 import http from 'k6/http';
 import { check, sleep } from 'k6';
 import { Counter, Trend } from 'k6/metrics';
+import { SharedArray } from 'k6/data';
 import { textSummary } from 'https://jslib.k6.io/k6-summary/0.0.1/index.js';
 
 // Custom metrics
@@ -31,6 +36,7 @@ const voteDuration = new Trend('vote_duration');
 
 // Configuration based on LOAD environment variable
 const loadProfile = __ENV.LOAD || 'low';
+const voteApiUrl = __ENV.VOTE_API_URL || 'http://localhost:4000';
 const configs = {
   low: {
     vus: 10,
@@ -54,6 +60,9 @@ const configs = {
 
 const config = configs[loadProfile];
 
+// Signed tokens, one per simulated voter; open() resolves relative paths against this script
+const tokens = new SharedArray('tokens', () => (__ENV.TOKENS_FILE ? JSON.parse(open(__ENV.TOKENS_FILE)) : []));
+
 export const options = {
   stages: [
     { duration: config.rampUp, target: config.vus },
@@ -62,7 +71,7 @@ export const options = {
   ],
   thresholds: {
     http_req_duration: ['p(95)<500', 'p(99)<1000'],
-    // Note: We expect 401 errors (invalid tokens) and 409 (conflicts) - testing throughput
+    // Without TOKENS_FILE every vote is a 401 and this threshold fails
     votes_succeeded: ['count>0'],
   },
   ext: {
@@ -74,7 +83,12 @@ export const options = {
 
 export function setup() {
   console.log(`Running test profile: ${config.name}`);
-  console.log('Note: This test uses mock tokens. In production, tokens would come from Hydra OAuth flow.');
+  if (tokens.length > 0) {
+    console.log(`Using ${tokens.length} signed tokens from ${__ENV.TOKENS_FILE}`);
+  } else {
+    console.log('WARNING: TOKENS_FILE not set. A placeholder token is sent, so every vote is rejected with 401');
+    console.log('and this run measures only the rejection path. See LOAD_TESTING.md to generate signed tokens.');
+  }
   console.log('');
   console.log('Real voting scenario:');
   console.log('1. User authenticates once -> gets JWT token from Hydra');
@@ -82,31 +96,26 @@ export function setup() {
   console.log('3. No Hydra calls during voting (only initial JWKS fetch, then cached)');
   console.log('');
   
-  // For load testing, we bypass JWT validation since we can't easily generate valid tokens
-  // In production, tokens come from Hydra after OAuth authentication
-  // The vote-api will attempt validation but we're testing throughput, not auth success
-  
   return {
-    // Using a placeholder token - vote-api will reject it but we measure throughput
-    token: 'mock-token-for-load-testing',
     electionId: 'election-2025-01'
   };
 }
 
 export default function (data) {
-  const { token, electionId } = data;
+  const { electionId } = data;
   
   // Simulate multiple candidates to distribute votes
   const candidates = ['alice', 'bob', 'charlie', 'diana'];
   const candidateId = candidates[Math.floor(Math.random() * candidates.length)];
   
-  // Create unique voter identifier per VU (simulates different users)
-  const voterId = `voter-${__VU}-${Math.floor(__ITER / 10)}`;  // Group iterations
+  // Each VU is one voter with its own token. A token votes once per election, so every
+  // iteration uses a new election; VUs beyond the number of tokens share one and see 409s.
+  const token = tokens.length > 0 ? tokens[(__VU - 1) % tokens.length] : 'mock-token-for-load-testing';
+  const voterId = `voter-${__VU}`;
   
   const payload = JSON.stringify({
-    electionId: electionId,
-    candidateId: candidateId,
-    voterId: voterId  // Custom header for test tracking
+    electionId: `${electionId}-${__ITER}`,
+    candidateId: candidateId
   });
   
   const params = {
@@ -119,18 +128,18 @@ export default function (data) {
   
   const startTime = Date.now();
   const response = http.post(
-    'http://localhost:4000/vote',
+    `${voteApiUrl}/vote`,
     payload,
     params
   );
   const duration = Date.now() - startTime;
   voteDuration.add(duration);
   
-  // Check response
-  if (response.status === 200) {
+  // Check response: vote-api-java answers 201 Created
+  if (response.status === 200 || response.status === 201) {
     votesSucceeded.add(1);
     check(response, {
-      'vote succeeded': (r) => r.status === 200,
+      'vote succeeded': (r) => r.status === 200 || r.status === 201,
       'has vote ID': (r) => r.body.includes('id'),
       'has timestamp': (r) => r.body.includes('votedAt'),
     });
@@ -140,9 +149,9 @@ export default function (data) {
       'conflict (duplicate vote)': (r) => r.status === 409,
     });
   } else if (response.status === 401) {
-    // Expected: mock token is invalid
+    // Expected only without TOKENS_FILE, or once the tokens have expired
     check(response, {
-      'unauthorized (mock token)': (r) => r.status === 401,
+      'unauthorized': (r) => r.status === 401,
     });
   } else {
     check(response, {